@@ -34,6 +34,7 @@ module org.jcnc.jnotepad {
     exports org.jcnc.jnotepad.component.module.interfaces;
     opens org.jcnc.jnotepad.app.config;
     exports org.jcnc.jnotepad.plugin.interfaces;
+    exports org.jcnc.jnotepad.plugin.manager;
     exports org.jcnc.jnotepad.views.root.bottom.function;
 
     exports org.jcnc.jnotepad.component.module;
@@ -49,5 +50,6 @@ module org.jcnc.jnotepad {
     exports org.jcnc.jnotepad.component.stage.topmenu.help;
     exports org.jcnc.jnotepad.component.stage.topmenu.plugin;
     exports org.jcnc.jnotepad.component.module.vbox.components;
+    exports org.jcnc.jnotepad.component.module.highlight;
 
 }
\ No newline at end of file
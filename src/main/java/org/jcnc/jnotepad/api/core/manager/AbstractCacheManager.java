@@ -1,19 +1,89 @@
 package org.jcnc.jnotepad.api.core.manager;
 
+import org.jcnc.jnotepad.common.manager.ThreadPoolManager;
 import org.jcnc.jnotepad.model.entity.Cache;
+import org.jcnc.jnotepad.model.enums.CacheEvictionPolicy;
+import org.jcnc.jnotepad.util.LogUtil;
+import org.slf4j.Logger;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
 
 /**
  * 抽象缓存管理类
  *
+ * <p>添加或更新缓存时将所在的缓存组标记为已修改，写入本地时只写入已修改的缓存组。
+ * 缓存集合可能同时被后台写入线程读取，使用并发集合保存。</p>
+ *
+ * <p>读取缓存只更新缓存自身的访问时间与次数，不加锁。每个命名空间的缓存数量或数据大小超过上限时按淘汰策略批量淘汰；
+ * 会过期的缓存加入时间轮，由后台线程在程序运行期间移除已过期的缓存。</p>
+ *
+ * <p>启动时只登记本地已有的缓存组，缓存组在第一次读取或写入时才加载，启动时必定用到的缓存组可在后台预先加载。
+ * 同一缓存组只加载一次，加载中的缓存组被其他线程访问时等待加载完成。</p>
+ *
  * @author gewuyou
  */
 public abstract class AbstractCacheManager {
+    private static final Logger logger = LogUtil.getLogger(AbstractCacheManager.class);
+    /**
+     * 默认每个命名空间的缓存数量上限
+     */
+    private static final int DEFAULT_MAX_ENTRIES = 10_000;
+    /**
+     * 时间轮每个刻度的时长（毫秒）
+     */
+    private static final long EXPIRATION_TICK = 1000L;
+    /**
+     * 时间轮槽的数量
+     */
+    private static final int EXPIRATION_WHEEL_SIZE = 512;
     /**
      * 缓存集合
      */
-    protected Map<String, Cache> caches;
+    protected volatile Map<String, Cache> caches = new ConcurrentHashMap<>(16);
+    /**
+     * 已修改、尚未写入本地的缓存组，键为命名空间，值为组
+     */
+    private final Set<Map.Entry<String, String>> dirtyGroups = ConcurrentHashMap.newKeySet();
+    /**
+     * 每个命名空间的缓存数量
+     */
+    private final Map<String, AtomicInteger> namespaceSizes = new ConcurrentHashMap<>(16);
+    /**
+     * 每个命名空间的缓存数据大小
+     */
+    private final Map<String, AtomicLong> namespaceBytes = new ConcurrentHashMap<>(16);
+    /**
+     * 淘汰缓存时持有，同一时刻只有一个线程淘汰，其他超出上限的线程直接返回
+     */
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final CacheExpirationWheel expirationWheel = new CacheExpirationWheel(EXPIRATION_TICK, EXPIRATION_WHEEL_SIZE, System.currentTimeMillis());
+    /**
+     * 已在时间轮中的缓存key，同一缓存只保留一个到期时间
+     */
+    private final Set<String> scheduledKeys = ConcurrentHashMap.newKeySet();
+    /**
+     * 推进时间轮的任务，有会过期的缓存时才启动
+     */
+    private final AtomicReference<ScheduledFuture<?>> expirationTask = new AtomicReference<>();
+    /**
+     * 尚未加载的缓存组，键为命名空间与组，值为加载任务，加载完成后移除
+     */
+    private final Map<Map.Entry<String, String>, FutureTask<Void>> unloadedGroups = new ConcurrentHashMap<>(16);
 
     /**
      * 获取全局命名空间
@@ -52,7 +122,16 @@ public abstract class AbstractCacheManager {
      * @param caches 缓存集合
      */
     public void setCaches(Map<String, Cache> caches) {
-        this.caches = caches;
+        Map<String, Cache> concurrentCaches = new ConcurrentHashMap<>(caches);
+        namespaceSizes.clear();
+        namespaceBytes.clear();
+        concurrentCaches.values().forEach(cache -> {
+            cache.setWeight(weigh(cache));
+            countAdded(cache);
+            scheduleExpiration(cache);
+        });
+        this.caches = concurrentCaches;
+        namespaceSizes.keySet().forEach(this::evictIfNeeded);
     }
 
     /**
@@ -61,12 +140,40 @@ public abstract class AbstractCacheManager {
      * @param cache 缓存
      */
     public void addCache(Cache cache) {
+        // 先加载所在的缓存组，避免写入时覆盖本地尚未加载的缓存
+        ensureGroupLoaded(cache.getNamespace(), cache.getGroup());
         String cacheKey = cache.getCacheKey();
-        // 如果集合中已存在该缓存，则更新读写时间
-        if (caches.containsKey(cacheKey)) {
-            cache.setLastReadOrWriteTime(System.currentTimeMillis());
+        long weight = weigh(cache);
+        // 单个缓存超过大小上限时加入后会被立即淘汰，直接拒绝
+        if (weight > getMaxBytes(cache.getNamespace())) {
+            logger.warn("缓存数据超过大小上限，未添加:{}", cacheKey);
+            return;
+        }
+        cache.setWeight(weight);
+        cache.recordAccess(System.currentTimeMillis());
+        countAdded(cache);
+        Cache previous = caches.put(cacheKey, cache);
+        if (previous != null) {
+            countRemoved(previous);
+        }
+        markDirty(cache.getNamespace(), cache.getGroup());
+        scheduleExpiration(cache);
+        evictIfNeeded(cache.getNamespace());
+    }
+
+    /**
+     * 移除缓存
+     *
+     * @param cache 缓存
+     * @return 是否已移除，缓存已被替换或移除时返回 false
+     */
+    public boolean removeCache(Cache cache) {
+        if (!caches.remove(cache.getCacheKey(), cache)) {
+            return false;
         }
-        caches.put(cacheKey, cache);
+        countRemoved(cache);
+        markDirty(cache.getNamespace(), cache.getGroup());
+        return true;
     }
 
     /**
@@ -76,15 +183,177 @@ public abstract class AbstractCacheManager {
      * @return 缓存类
      */
     public Cache getCache(String cacheKey) {
-        if (caches == null || caches.isEmpty()) {
+        Cache cache = caches.get(cacheKey);
+        if (cache == null && !unloadedGroups.isEmpty()) {
+            // 只加载缓存key以其开头的缓存组；命名空间或组名含有分隔符时可能有多个候选，没有候选时缓存不在任何未加载的组中
+            unloadedGroups.keySet().stream()
+                    .filter(group -> cacheKey.startsWith(Cache.getCacheKey(group.getKey(), group.getValue(), "")))
+                    .toList()
+                    .forEach(group -> ensureGroupLoaded(group.getKey(), group.getValue()));
+            cache = caches.get(cacheKey);
+        }
+        return access(cache);
+    }
+
+    /**
+     * 读取已加载的缓存，已过期时移除
+     *
+     * @param cache 缓存，可为 null
+     * @return 未过期的缓存，不存在或已过期时返回 null
+     */
+    private Cache access(Cache cache) {
+        if (cache == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        // 时间轮最多晚一个刻度移除，读取时再检查一次
+        if (cache.isExpired(now)) {
+            removeCache(cache);
             return null;
         }
-        if (caches.containsKey(cacheKey)) {
+        cache.recordAccess(now);
+        // 会过期的缓存需要保存新的读取时间，永不过期的缓存读取时不必写入
+        if (cache.getExpirationTime() != null && cache.getExpirationTime() >= 0) {
+            markDirty(cache.getNamespace(), cache.getGroup());
+        }
+        return cache;
+    }
+
+    /**
+     * 获取命名空间的缓存数量上限
+     *
+     * @param namespace 命名空间
+     * @return 缓存数量上限
+     */
+    protected int getMaxEntries(String namespace) {
+        return DEFAULT_MAX_ENTRIES;
+    }
+
+    /**
+     * 获取命名空间的缓存数据大小上限
+     *
+     * @param namespace 命名空间
+     * @return 数据大小上限（字节），默认不限制
+     */
+    protected long getMaxBytes(String namespace) {
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * 计算缓存数据占用的字节数，默认不按大小淘汰时不计算
+     *
+     * @param cache 缓存
+     * @return 字节数
+     */
+    protected long weigh(Cache cache) {
+        return 0;
+    }
+
+    /**
+     * 获取缓存淘汰策略
+     *
+     * @return 淘汰策略
+     */
+    protected CacheEvictionPolicy getEvictionPolicy() {
+        return CacheEvictionPolicy.LRU;
+    }
+
+    /**
+     * 命名空间的缓存数量或数据大小超过上限时，按淘汰策略淘汰到上限的 90%，避免之后每次添加都要淘汰
+     *
+     * @param namespace 命名空间
+     */
+    protected void evictIfNeeded(String namespace) {
+        AtomicInteger size = namespaceSizes.get(namespace);
+        AtomicLong bytes = namespaceBytes.get(namespace);
+        int maxEntries = getMaxEntries(namespace);
+        long maxBytes = getMaxBytes(namespace);
+        if (size == null || bytes == null || (size.get() <= maxEntries && bytes.get() <= maxBytes)
+                || !evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            List<Cache> candidates = new ArrayList<>();
+            long remainingBytes = 0;
+            for (Cache cache : caches.values()) {
+                if (namespace.equals(cache.getNamespace())) {
+                    candidates.add(cache);
+                    remainingBytes += cache.getWeight();
+                }
+            }
+            int targetEntries = maxEntries - maxEntries / 10;
+            long targetBytes = maxBytes - maxBytes / 10;
+            int remainingEntries = candidates.size();
+            candidates.sort(getEvictionPolicy().getEvictionOrder());
+            for (Cache cache : candidates) {
+                if (remainingEntries <= targetEntries && remainingBytes <= targetBytes) {
+                    break;
+                }
+                if (removeCache(cache)) {
+                    remainingEntries--;
+                    remainingBytes -= cache.getWeight();
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void countAdded(Cache cache) {
+        namespaceSizes.computeIfAbsent(cache.getNamespace(), k -> new AtomicInteger()).incrementAndGet();
+        namespaceBytes.computeIfAbsent(cache.getNamespace(), k -> new AtomicLong()).addAndGet(cache.getWeight());
+    }
+
+    private void countRemoved(Cache cache) {
+        AtomicInteger size = namespaceSizes.get(cache.getNamespace());
+        if (size != null) {
+            size.decrementAndGet();
+        }
+        AtomicLong bytes = namespaceBytes.get(cache.getNamespace());
+        if (bytes != null) {
+            bytes.addAndGet(-cache.getWeight());
+        }
+    }
+
+    /**
+     * 将会过期的缓存加入时间轮
+     *
+     * @param cache 缓存
+     */
+    private void scheduleExpiration(Cache cache) {
+        Long expirationTime = cache.getExpirationTime();
+        Long lastReadOrWriteTime = cache.getLastReadOrWriteTime();
+        if (expirationTime == null || expirationTime < 0 || lastReadOrWriteTime == null
+                || !scheduledKeys.add(cache.getCacheKey())) {
+            return;
+        }
+        expirationWheel.schedule(cache.getCacheKey(), lastReadOrWriteTime + expirationTime);
+        if (expirationTask.get() == null) {
+            ScheduledFuture<?> task = ThreadPoolManager.getCacheFlushThreadPool().scheduleWithFixedDelay(
+                    this::expireCaches, EXPIRATION_TICK, EXPIRATION_TICK, TimeUnit.MILLISECONDS);
+            if (!expirationTask.compareAndSet(null, task)) {
+                task.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * 推进时间轮，移除已过期的缓存；到期前被访问或替换过的缓存按新的读取时间重新加入
+     */
+    private void expireCaches() {
+        long now = System.currentTimeMillis();
+        for (String cacheKey : expirationWheel.advance(now)) {
+            scheduledKeys.remove(cacheKey);
             Cache cache = caches.get(cacheKey);
-            cache.setLastReadOrWriteTime(System.currentTimeMillis());
-            return cache;
+            if (cache == null) {
+                continue;
+            }
+            if (cache.isExpired(now)) {
+                removeCache(cache);
+            } else {
+                scheduleExpiration(cache);
+            }
         }
-        return null;
     }
 
     /**
@@ -95,7 +364,8 @@ public abstract class AbstractCacheManager {
      * @return 缓存类
      */
     public Cache getCache(String group, String name) {
-        return getCache(Cache.getCacheKey(getGlobalNamespace(), group, name));
+        ensureGroupLoaded(getGlobalNamespace(), group);
+        return access(caches.get(Cache.getCacheKey(getGlobalNamespace(), group, name)));
     }
 
     /**
@@ -113,4 +383,115 @@ public abstract class AbstractCacheManager {
         return cache.getCacheData();
     }
 
+    /**
+     * 登记本地已有、尚未加载的缓存组，在设置缓存集合后调用
+     *
+     * @param groups 缓存组，键为命名空间，值为组
+     * @param loader 读取缓存组的方法，读取失败时返回空集合
+     */
+    public void setUnloadedGroups(Collection<Map.Entry<String, String>> groups, BiFunction<String, String, List<Cache>> loader) {
+        unloadedGroups.clear();
+        for (Map.Entry<String, String> group : groups) {
+            String namespace = group.getKey();
+            String groupName = group.getValue();
+            unloadedGroups.put(Map.entry(namespace, groupName), new FutureTask<>(() -> {
+                putLoadedCaches(namespace, groupName, loader.apply(namespace, groupName));
+                return null;
+            }));
+        }
+    }
+
+    /**
+     * 在后台线程中预先加载缓存组
+     *
+     * @param namespace 命名空间
+     * @param groups    组
+     */
+    public void prefetchGroups(String namespace, String... groups) {
+        for (String group : groups) {
+            if (unloadedGroups.containsKey(Map.entry(namespace, group))) {
+                ThreadPoolManager.getCacheFlushThreadPool().execute(() -> ensureGroupLoaded(namespace, group));
+            }
+        }
+    }
+
+    /**
+     * 缓存组尚未加载时加载，其他线程正在加载时等待加载完成
+     *
+     * @param namespace 命名空间
+     * @param group     组
+     */
+    protected void ensureGroupLoaded(String namespace, String group) {
+        Map.Entry<String, String> groupKey = Map.entry(namespace, group);
+        FutureTask<Void> task = unloadedGroups.get(groupKey);
+        if (task == null) {
+            return;
+        }
+        // 加载任务只会执行一次，已在执行或已完成时直接返回
+        task.run();
+        try {
+            task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (ExecutionException e) {
+            logger.error("加载缓存组出错:{}/{}", namespace, group, e.getCause());
+        }
+        unloadedGroups.remove(groupKey, task);
+    }
+
+    /**
+     * 将加载的缓存放入缓存集合，已在内存中的同名缓存较新，保留内存中的缓存
+     *
+     * @param namespace 命名空间
+     * @param group     组
+     * @param loaded    加载的缓存
+     */
+    private void putLoadedCaches(String namespace, String group, List<Cache> loaded) {
+        long now = System.currentTimeMillis();
+        boolean hasExpired = false;
+        for (Cache cache : loaded) {
+            // 判断缓存是否过期,没有过期才加载进内存
+            if (cache.isExpired(now)) {
+                hasExpired = true;
+                continue;
+            }
+            cache.setWeight(weigh(cache));
+            if (caches.putIfAbsent(cache.getCacheKey(), cache) == null) {
+                countAdded(cache);
+                scheduleExpiration(cache);
+            }
+        }
+        if (hasExpired) {
+            // 重写所在的缓存组，从本地移除过期的缓存
+            markDirty(namespace, group);
+        }
+        evictIfNeeded(namespace);
+    }
+
+    /**
+     * 将缓存组标记为已修改
+     *
+     * @param namespace 命名空间
+     * @param group     组
+     */
+    public void markDirty(String namespace, String group) {
+        dirtyGroups.add(Map.entry(namespace, group));
+    }
+
+    /**
+     * 取出所有已修改的缓存组并清除标记，写入失败时需重新标记
+     *
+     * @return 已修改的缓存组，键为命名空间，值为组
+     */
+    public List<Map.Entry<String, String>> takeDirtyGroups() {
+        List<Map.Entry<String, String>> groups = new ArrayList<>();
+        Iterator<Map.Entry<String, String>> iterator = dirtyGroups.iterator();
+        while (iterator.hasNext()) {
+            groups.add(iterator.next());
+            // 取出期间再次修改的缓存组会重新加入，不会丢失
+            iterator.remove();
+        }
+        return groups;
+    }
 }
@@ -0,0 +1,95 @@
+package org.jcnc.jnotepad.api.core.manager;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 缓存过期时间轮
+ *
+ * <p>时间轮分为固定数量的槽，每个槽对应一个时间刻度，缓存按到期刻度放入对应的槽，超过一圈的缓存在经过该槽时保留到到期的那一圈。
+ * 添加缓存的操作可在任意线程中进行，推进时间轮只在一个线程中进行，每个刻度只检查一个槽。</p>
+ *
+ * <p>读取缓存时不更新时间轮，到期的缓存由调用方检查是否在期间被访问过，未过期时重新加入。</p>
+ *
+ * @author gewuyou
+ */
+final class CacheExpirationWheel {
+    private final long tickMillis;
+    private final int mask;
+    private final Queue<Timeout>[] buckets;
+    /**
+     * 已处理的刻度，只在推进时间轮的线程中修改
+     */
+    private volatile long processedTick;
+
+    /**
+     * 创建时间轮
+     *
+     * @param tickMillis 每个刻度的时长（毫秒）
+     * @param wheelSize  槽的数量，需为 2 的幂
+     * @param now        当前时间
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    CacheExpirationWheel(long tickMillis, int wheelSize, long now) {
+        this.tickMillis = tickMillis;
+        this.mask = wheelSize - 1;
+        this.buckets = new Queue[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.processedTick = now / tickMillis;
+    }
+
+    /**
+     * 加入到期时间
+     *
+     * @param cacheKey 缓存key
+     * @param deadline 到期时间
+     */
+    void schedule(String cacheKey, long deadline) {
+        // 到期刻度已处理时放入下一个刻度，最多晚一个刻度处理
+        long deadlineTick = Math.max(deadline / tickMillis, processedTick + 1);
+        buckets[(int) (deadlineTick & mask)].add(new Timeout(cacheKey, deadlineTick));
+    }
+
+    /**
+     * 推进到当前时间，取出已到期的缓存
+     *
+     * @param now 当前时间
+     * @return 已到期的缓存key
+     */
+    List<String> advance(long now) {
+        List<String> expired = new ArrayList<>();
+        long currentTick = now / tickMillis;
+        // 间隔超过一圈时每个槽只需检查一次
+        long firstTick = Math.max(processedTick + 1, currentTick - mask);
+        for (long tick = firstTick; tick <= currentTick; tick++) {
+            Iterator<Timeout> iterator = buckets[(int) (tick & mask)].iterator();
+            while (iterator.hasNext()) {
+                Timeout timeout = iterator.next();
+                if (timeout.deadlineTick <= currentTick) {
+                    expired.add(timeout.cacheKey);
+                    iterator.remove();
+                }
+            }
+        }
+        processedTick = Math.max(processedTick, currentTick);
+        return expired;
+    }
+
+    /**
+     * 时间轮中的一个到期时间
+     */
+    private static final class Timeout {
+        private final String cacheKey;
+        private final long deadlineTick;
+
+        private Timeout(String cacheKey, long deadlineTick) {
+            this.cacheKey = cacheKey;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
@@ -16,7 +16,50 @@ public class UserConfig {
     @JsonIgnore
     private boolean textWrap;
     private List<ShortcutKey> shortcutKey;
-
+    /**
+     * 大文件模式的文件大小阈值（字节）
+     */
+    private Long largeFileThreshold;
+    /**
+     * 自动保存间隔（毫秒），停止输入超过该时间后保存，不大于 0 时关闭自动保存
+     */
+    private Long autoSaveInterval;
+    /**
+     * 同时保留内容的标签页数量上限，超出后休眠最久未访问的标签页；休眠的标签页重新加载后撤销记录不会保留
+     */
+    private Integer maxLoadedTabs;
+    /**
+     * 保存时是否将文件内容刷新到磁盘后再替换原文件
+     */
+    private Boolean syncOnSave;
+    /**
+     * 打开文件夹时不扫描的文件夹名称
+     */
+    private List<String> directoryExcludes;
+    /**
+     * 文件树中每个文件夹一次显示的子项数量上限，超出部分折叠为"显示更多"
+     */
+    private Integer directoryEntryLimit;
+    /**
+     * 缓存存储类型，log 或 json，切换后下次启动时迁移已有缓存
+     */
+    private String cacheStore;
+    /**
+     * 每个缓存命名空间的缓存数量上限
+     */
+    private Integer cacheMaxEntries;
+    /**
+     * 缓存数量超过上限时的淘汰策略，lru 或 lfu
+     */
+    private String cacheEvictionPolicy;
+    /**
+     * 每个插件的缓存数量上限
+     */
+    private Integer pluginCacheMaxEntries;
+    /**
+     * 每个插件的缓存数据大小上限（字节）
+     */
+    private Long pluginCacheMaxBytes;
 
     public String getLanguage() {
         return language;
@@ -41,4 +84,92 @@ public class UserConfig {
     public void setTextWrap(boolean textWrap) {
         this.textWrap = textWrap;
     }
+
+    public Long getLargeFileThreshold() {
+        return largeFileThreshold;
+    }
+
+    public void setLargeFileThreshold(Long largeFileThreshold) {
+        this.largeFileThreshold = largeFileThreshold;
+    }
+
+    public Long getAutoSaveInterval() {
+        return autoSaveInterval;
+    }
+
+    public void setAutoSaveInterval(Long autoSaveInterval) {
+        this.autoSaveInterval = autoSaveInterval;
+    }
+
+    public Integer getMaxLoadedTabs() {
+        return maxLoadedTabs;
+    }
+
+    public void setMaxLoadedTabs(Integer maxLoadedTabs) {
+        this.maxLoadedTabs = maxLoadedTabs;
+    }
+
+    public Boolean getSyncOnSave() {
+        return syncOnSave;
+    }
+
+    public void setSyncOnSave(Boolean syncOnSave) {
+        this.syncOnSave = syncOnSave;
+    }
+
+    public List<String> getDirectoryExcludes() {
+        return directoryExcludes;
+    }
+
+    public void setDirectoryExcludes(List<String> directoryExcludes) {
+        this.directoryExcludes = directoryExcludes;
+    }
+
+    public Integer getDirectoryEntryLimit() {
+        return directoryEntryLimit;
+    }
+
+    public void setDirectoryEntryLimit(Integer directoryEntryLimit) {
+        this.directoryEntryLimit = directoryEntryLimit;
+    }
+
+    public String getCacheStore() {
+        return cacheStore;
+    }
+
+    public void setCacheStore(String cacheStore) {
+        this.cacheStore = cacheStore;
+    }
+
+    public Integer getCacheMaxEntries() {
+        return cacheMaxEntries;
+    }
+
+    public void setCacheMaxEntries(Integer cacheMaxEntries) {
+        this.cacheMaxEntries = cacheMaxEntries;
+    }
+
+    public String getCacheEvictionPolicy() {
+        return cacheEvictionPolicy;
+    }
+
+    public void setCacheEvictionPolicy(String cacheEvictionPolicy) {
+        this.cacheEvictionPolicy = cacheEvictionPolicy;
+    }
+
+    public Integer getPluginCacheMaxEntries() {
+        return pluginCacheMaxEntries;
+    }
+
+    public void setPluginCacheMaxEntries(Integer pluginCacheMaxEntries) {
+        this.pluginCacheMaxEntries = pluginCacheMaxEntries;
+    }
+
+    public Long getPluginCacheMaxBytes() {
+        return pluginCacheMaxBytes;
+    }
+
+    public void setPluginCacheMaxBytes(Long pluginCacheMaxBytes) {
+        this.pluginCacheMaxBytes = pluginCacheMaxBytes;
+    }
 }
@@ -12,6 +12,7 @@ import org.jcnc.jnotepad.app.config.AppConfig;
 import org.jcnc.jnotepad.app.i18n.UiResourceBundle;
 import org.jcnc.jnotepad.common.constants.AppConstants;
 import org.jcnc.jnotepad.common.constants.TextConstants;
+import org.jcnc.jnotepad.common.manager.AutoSaveManager;
 import org.jcnc.jnotepad.common.manager.ThreadPoolManager;
 import org.jcnc.jnotepad.controller.ResourceController;
 import org.jcnc.jnotepad.controller.cache.CacheController;
@@ -114,13 +115,8 @@ public class ApplicationManager {
         primaryStage.setWidth(scene.getWidth());
         primaryStage.setHeight(scene.getHeight());
         primaryStage.getIcons().add(UiUtil.getAppIcon());
-        primaryStage.focusedProperty().addListener((observable, oldValue, newValue) -> {
-            if (Boolean.TRUE.equals(newValue)) {
-                CenterTabPaneManager instance = CenterTabPaneManager.getInstance();
-                instance.checkFileTabStatus(instance.getSelected());
-            }
-        });
-        primaryStage.setOnCloseRequest(event -> System.exit(0));
+        // 经由 Platform.exit() 退出，停止前操作（写入未保存的修改等）才会执行
+        primaryStage.setOnCloseRequest(event -> stop());
     }
 
     /**
@@ -129,6 +125,8 @@ public class ApplicationManager {
     public void loadAppCache() {
         // 加载缓存
         CacheController.getInstance().loadCaches();
+        // 定时写入修改过的缓存
+        CacheController.getInstance().startWriteBehind();
     }
 
     /**
@@ -185,10 +183,12 @@ public class ApplicationManager {
 
         // 销毁插件可能申请的资源
         PluginManager.getInstance().destroyPlugins();
+        // 写入等待中的自动保存
+        AutoSaveManager.getInstance().flush();
         // 保存已打开的文件标签页
         CenterTabPaneManager.getInstance().saveOpenFileTabs();
-        // 将缓存写入本地
-        CacheController.getInstance().writeCaches();
+        // 将剩余未写入的缓存写入本地，迁移文件夹前停止定时写入
+        CacheController.getInstance().flushAndStop();
         // 迁移文件夹
         migrateFileRootFolder();
         // 关闭线程池
@@ -20,11 +20,14 @@ public class TextConstants {
     public static final String NEW = "NEW";
     public static final String OPEN = "OPEN";
     public static final String OPEN_DIRECTORY  = "OPEN_DIRECTORY";
+    public static final String SHOW_MORE = "SHOW_MORE";
+    public static final String SCANNING_DIRECTORY = "SCANNING_DIRECTORY";
     public static final String SAVE_AS = "SAVE_AS";
     public static final String RENAME = "RENAME";
     public static final String SET = "SET";
     public static final String HELP = "HELP";
     public static final String WORD_WRAP = "WORD_WRAP";
+    public static final String FOLLOW_FILE = "FOLLOW_FILE";
     public static final String PLUGIN = "PLUGIN";
     public static final String MANAGER_PLUGIN = "MANAGER_PLUGIN";
 
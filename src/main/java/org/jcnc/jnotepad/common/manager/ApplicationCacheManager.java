@@ -1,6 +1,8 @@
 package org.jcnc.jnotepad.common.manager;
 
 import org.jcnc.jnotepad.api.core.manager.AbstractCacheManager;
+import org.jcnc.jnotepad.controller.config.UserConfigController;
+import org.jcnc.jnotepad.model.enums.CacheEvictionPolicy;
 
 /**
  * 应用程序缓存管理类
@@ -23,4 +25,14 @@ public class ApplicationCacheManager extends AbstractCacheManager {
     public String getGlobalNamespace() {
         return "jcnc";
     }
+
+    @Override
+    protected int getMaxEntries(String namespace) {
+        return UserConfigController.getInstance().getCacheMaxEntries();
+    }
+
+    @Override
+    protected CacheEvictionPolicy getEvictionPolicy() {
+        return UserConfigController.getInstance().getCacheEvictionPolicy();
+    }
 }
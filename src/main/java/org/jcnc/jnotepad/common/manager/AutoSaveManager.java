@@ -0,0 +1,331 @@
+package org.jcnc.jnotepad.common.manager;
+
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.util.Duration;
+import org.jcnc.jnotepad.controller.config.UserConfigController;
+import org.jcnc.jnotepad.component.module.TextCodeArea;
+import org.jcnc.jnotepad.model.document.DirtyRangeTracker;
+import org.jcnc.jnotepad.model.document.DocumentSnapshot;
+import org.jcnc.jnotepad.model.enums.LineEnding;
+import org.jcnc.jnotepad.util.LogUtil;
+import org.jcnc.jnotepad.util.PopUpUtil;
+import org.jcnc.jnotepad.views.root.center.main.center.tab.CenterTab;
+import org.slf4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 自动保存管理类
+ *
+ * <p>文本修改后不立即保存，而是在停止输入超过配置的间隔后保存一次。保存时在 JavaFX 线程中获取文档快照，
+ * 由后台保存线程写入临时文件后原子替换；同一标签页排队中的多次保存只写入最新的快照。
+ * 文件自上次保存后未被外部修改时，优先只在原位置改写修改过的区间。</p>
+ *
+ * @author gewuyou
+ */
+public class AutoSaveManager {
+    private static final Logger logger = LogUtil.getLogger(AutoSaveManager.class);
+    private static final AutoSaveManager INSTANCE = new AutoSaveManager();
+    /**
+     * 关闭程序时等待保存完成的最长时间（秒）
+     */
+    private static final long FLUSH_TIMEOUT = 5;
+    /**
+     * 等待中的自动保存，只在 JavaFX 线程中访问
+     */
+    private final Map<CenterTab, PauseTransition> pendingSaves = new HashMap<>();
+    /**
+     * 排队中尚未写入的保存请求，新请求覆盖旧请求
+     */
+    private final Map<CenterTab, SaveRequest> queuedWrites = new ConcurrentHashMap<>();
+    /**
+     * 有尚未提交保存的修改的标签页
+     */
+    private final Set<CenterTab> modifiedTabs = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+    /**
+     * 正在写入的标签页
+     */
+    private volatile CenterTab writingTab;
+    private final ExecutorService executor = ThreadPoolManager.getSaveThreadPool();
+
+    private AutoSaveManager() {
+    }
+
+    public static AutoSaveManager getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 请求自动保存标签页，间隔内的多次请求合并为一次
+     *
+     * @param tab 标签页
+     */
+    public void requestSave(CenterTab tab) {
+        if (!isSavable(tab)) {
+            return;
+        }
+        modifiedTabs.add(tab);
+        long interval = UserConfigController.getInstance().getAutoSaveInterval();
+        if (interval <= 0) {
+            return;
+        }
+        PauseTransition pause = pendingSaves.computeIfAbsent(tab, key -> {
+            PauseTransition transition = new PauseTransition();
+            transition.setOnFinished(event -> saveNow(key));
+            return transition;
+        });
+        pause.setDuration(Duration.millis(interval));
+        pause.playFromStart();
+    }
+
+    /**
+     * 立即保存标签页，取消等待中的自动保存
+     *
+     * @param tab 标签页
+     */
+    public void saveNow(CenterTab tab) {
+        PauseTransition pause = pendingSaves.remove(tab);
+        if (pause != null) {
+            pause.stop();
+        }
+        if (!isSavable(tab)) {
+            return;
+        }
+        File file = (File) tab.getUserData();
+        modifiedTabs.remove(tab);
+        TextCodeArea textCodeArea = tab.getTextCodeArea();
+        enqueue(new SaveRequest(tab, file, textCodeArea.snapshot(), textCodeArea.getDirtyRanges().take(),
+                tab.getLastModifiedTimeOfAssociatedFile(), tab.getCharset(), tab.getLineEnding()));
+    }
+
+    /**
+     * 判断标签页是否有尚未写入文件的修改
+     *
+     * @param tab 标签页
+     * @return 是否有未写入的修改
+     */
+    public boolean hasUnsavedChanges(CenterTab tab) {
+        return modifiedTabs.contains(tab) || pendingSaves.containsKey(tab)
+                || queuedWrites.containsKey(tab) || writingTab == tab;
+    }
+
+    /**
+     * 判断标签页是否有排队中或正在写入的保存
+     *
+     * @param tab 标签页
+     * @return 是否正在写入
+     */
+    public boolean isWriting(CenterTab tab) {
+        return queuedWrites.containsKey(tab) || writingTab == tab;
+    }
+
+    /**
+     * 放弃标签页尚未写入的保存，并以当前内容作为已保存的状态，用于从文件重新加载内容的场景
+     *
+     * @param tab 标签页
+     */
+    public void discardPendingSaves(CenterTab tab) {
+        PauseTransition pause = pendingSaves.remove(tab);
+        if (pause != null) {
+            pause.stop();
+        }
+        queuedWrites.remove(tab);
+        modifiedTabs.remove(tab);
+        tab.getTextCodeArea().getDirtyRanges().take();
+    }
+
+    /**
+     * 立即保存标签页，写入完成后在 JavaFX 线程中执行回调，用于保存后需要读取文件的场景
+     *
+     * @param tab      标签页
+     * @param callback 写入完成后的回调，写入失败时同样执行
+     */
+    public void saveThen(CenterTab tab, Runnable callback) {
+        saveNow(tab);
+        afterWrites(tab, callback);
+    }
+
+    /**
+     * 标签页排队中与正在进行的写入均完成后，在 JavaFX 线程中执行回调
+     *
+     * @param tab      标签页
+     * @param callback 回调
+     */
+    private void afterWrites(CenterTab tab, Runnable callback) {
+        // 保存线程按提交顺序执行，该任务执行时之前提交的写入均已完成
+        executor.execute(() -> Platform.runLater(() -> {
+            // 等待期间又提交的保存同样需要完成
+            if (isWriting(tab)) {
+                afterWrites(tab, callback);
+            } else {
+                callback.run();
+            }
+        }));
+    }
+
+    /**
+     * 立即写入所有尚未保存的修改并等待写入完成，在关闭程序前调用
+     * <p>
+     * 关闭自动保存时修改只记录而不排队，同样在此写入，退出程序不会丢失修改。
+     * 所有写入（包括改为直接覆盖的重试）都在保存线程中完成，关闭保存线程后等待其结束即可
+     */
+    public void flush() {
+        Set<CenterTab> tabs = new LinkedHashSet<>(pendingSaves.keySet());
+        synchronized (modifiedTabs) {
+            tabs.addAll(modifiedTabs);
+        }
+        tabs.forEach(this::saveNow);
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(FLUSH_TIMEOUT, TimeUnit.SECONDS)) {
+                logger.warn("等待文件保存超时");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean isSavable(CenterTab tab) {
+        // 尚未读取或加载中的文本域内容不完整
+        return tab != null && !tab.isReadOnly() && tab.getUserData() != null
+                && tab.isContentLoaded() && !tab.getTextCodeArea().isLoading();
+    }
+
+    private void enqueue(SaveRequest request) {
+        boolean[] queued = new boolean[1];
+        // 已有排队中的请求时只替换快照，由该请求对应的任务写入；被替换请求的修改区间随之丢失，只能重写整个文件
+        queuedWrites.compute(request.tab, (tab, previous) -> {
+            queued[0] = previous != null;
+            return previous == null ? request : request.withoutDirtyRanges();
+        });
+        if (queued[0]) {
+            return;
+        }
+        if (executor.isShutdown()) {
+            // 程序关闭后不再接受新的保存
+            queuedWrites.remove(request.tab);
+            logger.warn("程序正在关闭，未能保存文件: {}", request.file);
+            return;
+        }
+        executor.submit(() -> write(request.tab));
+    }
+
+    /**
+     * 在保存线程中写入标签页最新的保存请求
+     *
+     * @param tab 标签页
+     */
+    private void write(CenterTab tab) {
+        // 先标记正在写入再出队，期间标签页始终被视为有未写入的修改
+        writingTab = tab;
+        SaveRequest request = queuedWrites.remove(tab);
+        if (request == null) {
+            writingTab = null;
+            return;
+        }
+        try {
+            if (!savePatch(request)) {
+                saveFully(request);
+            }
+        } catch (IOException e) {
+            // 写入失败的修改仍未保存，文件内容不确定，下次保存重写整个文件
+            modifiedTabs.add(tab);
+            Platform.runLater(() -> tab.getTextCodeArea().getDirtyRanges().markAllDirty());
+            Platform.runLater(() -> PopUpUtil.errorAlert("错误", "读写错误", "保存文件失败: " + request.file.getName(), null, null));
+            return;
+        } finally {
+            writingTab = null;
+        }
+        long lastModified = request.file.lastModified();
+        long size = request.file.length();
+        Platform.runLater(() -> {
+            // 保存期间标签页可能已另存为其他文件
+            if (request.file.equals(tab.getUserData())) {
+                tab.markSynced(lastModified, size);
+            }
+        });
+    }
+
+    /**
+     * 重写整个文件，原子替换失败时（如目录不可写）直接覆盖原文件
+     * <p>
+     * 在保存线程中完成，不回到 JavaFX 线程重新排队，关闭程序时等待保存线程结束即可写入全部修改
+     *
+     * @param request 保存请求
+     * @throws IOException 直接覆盖同样失败
+     */
+    private void saveFully(SaveRequest request) throws IOException {
+        try {
+            FileSaveManager.getInstance().saveAtomically(request.file.toPath(), request.snapshot, request.charset, request.lineEnding);
+        } catch (IOException e) {
+            logger.warn("原子保存失败，改为直接覆盖文件: {}", request.file, e);
+            FileSaveManager.getInstance().saveDirectly(request.file.toPath(), request.snapshot, request.charset, request.lineEnding);
+        }
+    }
+
+    /**
+     * 尝试只改写修改过的区间，文件已被外部修改或改写失败时返回 false
+     *
+     * @param request 保存请求
+     * @return 是否已改写
+     */
+    private boolean savePatch(SaveRequest request) {
+        if (request.dirtyRanges == null
+                || !Long.valueOf(request.file.lastModified()).equals(request.expectedLastModified)) {
+            return false;
+        }
+        try {
+            return FileSaveManager.getInstance().savePatch(request.file.toPath(), request.snapshot, request.dirtyRanges,
+                    request.charset, request.lineEnding);
+        } catch (IOException e) {
+            logger.warn("改写修改区间失败，改为重写整个文件: {}", request.file, e);
+            return false;
+        }
+    }
+
+    /**
+     * 保存请求
+     */
+    private static class SaveRequest {
+        private final CenterTab tab;
+        private final File file;
+        private final DocumentSnapshot snapshot;
+        /**
+         * 上次保存后修改过的区间，为 null 时重写整个文件
+         */
+        private final DirtyRangeTracker.DirtyRanges dirtyRanges;
+        /**
+         * 上次保存后文件的修改时间，与当前不一致说明文件已被外部修改
+         */
+        private final Long expectedLastModified;
+        private final Charset charset;
+        private final LineEnding lineEnding;
+
+        private SaveRequest(CenterTab tab, File file, DocumentSnapshot snapshot, DirtyRangeTracker.DirtyRanges dirtyRanges,
+                            Long expectedLastModified, Charset charset, LineEnding lineEnding) {
+            this.tab = tab;
+            this.file = file;
+            this.snapshot = snapshot;
+            this.dirtyRanges = dirtyRanges;
+            this.expectedLastModified = expectedLastModified;
+            this.charset = charset;
+            this.lineEnding = lineEnding;
+        }
+
+        private SaveRequest withoutDirtyRanges() {
+            return new SaveRequest(tab, file, snapshot, null, null, charset, lineEnding);
+        }
+    }
+}
@@ -0,0 +1,447 @@
+package org.jcnc.jnotepad.common.manager;
+
+import org.jcnc.jnotepad.controller.config.UserConfigController;
+import org.jcnc.jnotepad.model.entity.DirFileModel;
+import org.jcnc.jnotepad.util.FileUtil;
+import org.jcnc.jnotepad.util.LogUtil;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * 文件夹扫描管理类
+ *
+ * <p>打开文件夹时在分治线程池中并行扫描整个文件夹：每个文件夹作为一个任务，用 {@link Files#walkFileTree} 读取直接子项，
+ * 再为子文件夹派生任务。配置的排除名称与各级 {@code .gitignore} 中的规则匹配的子项不显示也不扫描，
+ * 依赖与构建输出目录不会拖慢扫描。每个文件夹扫描完成后立即通知监听器，文件树可以边扫描边显示。</p>
+ *
+ * <p>已扫描的子项总数超过上限后不再深入扫描，尚未扫描的文件夹在展开时单独读取。</p>
+ *
+ * @author gewuyou
+ */
+public class DirectoryScanManager {
+    private static final Logger logger = LogUtil.getLogger(DirectoryScanManager.class);
+    private static final DirectoryScanManager INSTANCE = new DirectoryScanManager();
+    /**
+     * 一次扫描最多预先读取的子项数量
+     */
+    private static final long MAX_SCANNED_ENTRIES = 100_000;
+    private static final String GIT_IGNORE = ".gitignore";
+    /**
+     * 当前的扫描，打开其他文件夹时取消
+     */
+    private volatile DirectoryScan currentScan;
+
+    private DirectoryScanManager() {
+    }
+
+    public static DirectoryScanManager getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 开始扫描文件夹，取消之前的扫描
+     *
+     * @param root     文件夹
+     * @param listener 扫描监听器，在扫描线程中调用
+     * @return 扫描
+     */
+    public DirectoryScan scan(Path root, Listener listener) {
+        DirectoryScan previous = currentScan;
+        if (previous != null) {
+            previous.cancel();
+        }
+        IgnoreRules rules = IgnoreRules.parse(null, root, UserConfigController.getInstance().getDirectoryExcludes());
+        DirectoryScan scan = new DirectoryScan(root, rules, listener);
+        currentScan = scan;
+        ForkJoinPool pool = ThreadPoolManager.getDirectoryScanPool();
+        pool.execute(() -> {
+            try {
+                new ScanTask(scan, root, rules, true).invoke();
+            } finally {
+                scan.done = true;
+                listener.onFinished(scan);
+            }
+        });
+        return scan;
+    }
+
+    /**
+     * 立即读取尚未扫描到的文件夹，用于展开扫描还没有到达或不再深入扫描的文件夹
+     *
+     * @param scan      扫描
+     * @param directory 文件夹
+     */
+    public void requestListing(DirectoryScan scan, Path directory) {
+        Path parent = directory.getParent();
+        IgnoreRules rules = parent == null ? null : scan.rules.get(parent);
+        IgnoreRules directoryRules = rules == null ? scan.rootRules : rules;
+        // 单个文件夹的任务不派生子任务，在文件线程中直接执行，不必排在整体扫描之后
+        ThreadPoolManager.getFileThreadPool().submit(() -> new ScanTask(scan, directory, directoryRules, false).invoke());
+    }
+
+    /**
+     * 扫描监听器
+     */
+    public interface Listener {
+        /**
+         * 一个文件夹的直接子项已读取
+         *
+         * @param scan      扫描
+         * @param directory 文件夹
+         */
+        void onDirectoryScanned(DirectoryScan scan, Path directory);
+
+        /**
+         * 扫描结束或被取消
+         *
+         * @param scan 扫描
+         */
+        void onFinished(DirectoryScan scan);
+    }
+
+    /**
+     * 一次文件夹扫描，保存已读取的各文件夹的子项
+     */
+    public static final class DirectoryScan {
+        private final Path root;
+        private final IgnoreRules rootRules;
+        private final Listener listener;
+        /**
+         * 已读取的文件夹的直接子项
+         */
+        private final Map<Path, List<DirFileModel>> listings = new ConcurrentHashMap<>();
+        /**
+         * 读取各文件夹时生效的忽略规则，单独读取子文件夹时使用
+         */
+        private final Map<Path, IgnoreRules> rules = new ConcurrentHashMap<>();
+        private final LongAdder scannedEntries = new LongAdder();
+        private final LongAdder scannedDirectories = new LongAdder();
+        private volatile boolean cancelled;
+        private volatile boolean done;
+
+        private DirectoryScan(Path root, IgnoreRules rootRules, Listener listener) {
+            this.root = root;
+            this.rootRules = rootRules;
+            this.listener = listener;
+        }
+
+        public Path getRoot() {
+            return root;
+        }
+
+        /**
+         * 获取已读取的文件夹子项
+         *
+         * @param directory 文件夹
+         * @return 按显示顺序排列的子项，尚未读取时为 null
+         */
+        public List<DirFileModel> getListing(Path directory) {
+            return listings.get(directory);
+        }
+
+        public long getScannedEntries() {
+            return scannedEntries.sum();
+        }
+
+        public long getScannedDirectories() {
+            return scannedDirectories.sum();
+        }
+
+        public boolean isDone() {
+            return done;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        private void publish(Path directory, List<DirFileModel> children, IgnoreRules directoryRules) {
+            rules.put(directory, directoryRules);
+            // 展开时单独读取的文件夹可能随后又被整体扫描读取一次，只通知第一次
+            if (listings.putIfAbsent(directory, Collections.unmodifiableList(children)) == null) {
+                scannedDirectories.increment();
+                scannedEntries.add(children.size());
+                listener.onDirectoryScanned(this, directory);
+            }
+        }
+    }
+
+    /**
+     * 读取一个文件夹的直接子项，递归扫描时为子文件夹派生任务
+     */
+    private static class ScanTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final transient DirectoryScan scan;
+        private final transient Path directory;
+        private final transient IgnoreRules rules;
+        private final boolean recursive;
+
+        private ScanTask(DirectoryScan scan, Path directory, IgnoreRules rules, boolean recursive) {
+            this.scan = scan;
+            this.directory = directory;
+            this.rules = rules;
+            this.recursive = recursive;
+        }
+
+        @Override
+        protected void compute() {
+            if (scan.cancelled) {
+                return;
+            }
+            IgnoreRules directoryRules = rules.withGitIgnore(directory);
+            List<DirFileModel> children = new ArrayList<>();
+            List<ScanTask> subtasks = new ArrayList<>();
+            try {
+                Files.walkFileTree(directory, EnumSet.noneOf(FileVisitOption.class), 1, new SimpleFileVisitor<>() {
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                        if (scan.cancelled) {
+                            return FileVisitResult.TERMINATE;
+                        }
+                        boolean isDirectory = attrs.isDirectory() || attrs.isSymbolicLink() && Files.isDirectory(file);
+                        if (directoryRules.isIgnored(file, isDirectory)) {
+                            return FileVisitResult.CONTINUE;
+                        }
+                        children.add(new DirFileModel(file.toString(), file.getFileName().toString(), isDirectory));
+                        // 符号链接的文件夹可能构成循环，不递归扫描，展开时再单独读取
+                        if (attrs.isDirectory()) {
+                            subtasks.add(new ScanTask(scan, file, directoryRules, true));
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                        logger.debug("无法读取: {}", file, exc);
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            } catch (IOException e) {
+                logger.warn("扫描文件夹失败: {}", directory, e);
+            }
+            if (scan.cancelled) {
+                return;
+            }
+            FileUtil.sortDirFileModels(children);
+            scan.publish(directory, children, directoryRules);
+            if (recursive && scan.getScannedEntries() < MAX_SCANNED_ENTRIES) {
+                invokeAll(subtasks);
+            }
+        }
+    }
+
+    /**
+     * {@code .gitignore} 格式的忽略规则
+     *
+     * <p>支持注释、{@code !} 取反、结尾 {@code /} 只匹配文件夹，以及 {@code *}、{@code ?}、{@code **} 与字符集通配符。
+     * 不含 {@code /} 的规则匹配任意层级的名称，其余规则相对于所在文件夹匹配。子文件夹的规则优先，同一文件中靠后的规则优先。</p>
+     */
+    static final class IgnoreRules {
+        private final IgnoreRules parent;
+        private final Path base;
+        private final List<Rule> rules;
+
+        private IgnoreRules(IgnoreRules parent, Path base, List<Rule> rules) {
+            this.parent = parent;
+            this.base = base;
+            this.rules = rules;
+        }
+
+        /**
+         * 解析忽略规则
+         *
+         * @param parent 上级文件夹的规则
+         * @param base   规则所在的文件夹
+         * @param lines  规则
+         * @return 忽略规则
+         */
+        static IgnoreRules parse(IgnoreRules parent, Path base, List<String> lines) {
+            List<Rule> rules = new ArrayList<>();
+            for (String line : lines) {
+                Rule rule = Rule.parse(line);
+                if (rule != null) {
+                    rules.add(rule);
+                }
+            }
+            return new IgnoreRules(parent, base, rules);
+        }
+
+        /**
+         * 加入文件夹中 {@code .gitignore} 的规则
+         *
+         * @param directory 文件夹
+         * @return 文件夹中生效的规则，没有 {@code .gitignore} 时为当前规则
+         */
+        IgnoreRules withGitIgnore(Path directory) {
+            Path gitIgnore = directory.resolve(GIT_IGNORE);
+            if (!Files.isRegularFile(gitIgnore)) {
+                return this;
+            }
+            try {
+                IgnoreRules rules = parse(this, directory, Files.readAllLines(gitIgnore, StandardCharsets.UTF_8));
+                return rules.rules.isEmpty() ? this : rules;
+            } catch (IOException e) {
+                logger.debug("无法读取忽略规则: {}", gitIgnore, e);
+                return this;
+            }
+        }
+
+        /**
+         * 判断文件是否被忽略
+         *
+         * @param path        文件
+         * @param isDirectory 是否为文件夹
+         * @return 是否被忽略
+         */
+        boolean isIgnored(Path path, boolean isDirectory) {
+            for (IgnoreRules current = this; current != null; current = current.parent) {
+                for (int i = current.rules.size() - 1; i >= 0; i--) {
+                    Rule rule = current.rules.get(i);
+                    if (rule.matches(current.base, path, isDirectory)) {
+                        return !rule.negated;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 一条忽略规则
+     */
+    private static final class Rule {
+        private static final String SPECIAL_CHARACTERS = "\\.[]{}()<>*+-=!?^$|";
+        private final Pattern pattern;
+        private final boolean negated;
+        private final boolean directoryOnly;
+        /**
+         * 是否相对于规则所在的文件夹匹配，否则只匹配名称
+         */
+        private final boolean anchored;
+
+        private Rule(Pattern pattern, boolean negated, boolean directoryOnly, boolean anchored) {
+            this.pattern = pattern;
+            this.negated = negated;
+            this.directoryOnly = directoryOnly;
+            this.anchored = anchored;
+        }
+
+        /**
+         * 解析一行规则
+         *
+         * @param line 规则
+         * @return 规则，空行、注释与无效的规则返回 null
+         */
+        private static Rule parse(String line) {
+            String glob = line.stripTrailing();
+            if (glob.isEmpty() || glob.startsWith("#")) {
+                return null;
+            }
+            boolean negated = glob.startsWith("!");
+            if (negated) {
+                glob = glob.substring(1);
+            } else if (glob.startsWith("\\#") || glob.startsWith("\\!")) {
+                glob = glob.substring(1);
+            }
+            boolean directoryOnly = glob.endsWith("/");
+            if (directoryOnly) {
+                glob = glob.substring(0, glob.length() - 1);
+            }
+            boolean anchored = glob.contains("/");
+            if (glob.startsWith("/")) {
+                glob = glob.substring(1);
+            }
+            if (glob.isEmpty()) {
+                return null;
+            }
+            try {
+                return new Rule(Pattern.compile(toRegex(glob)), negated, directoryOnly, anchored);
+            } catch (PatternSyntaxException e) {
+                logger.debug("无效的忽略规则: {}", line, e);
+                return null;
+            }
+        }
+
+        private static String toRegex(String glob) {
+            StringBuilder regex = new StringBuilder();
+            for (int i = 0; i < glob.length(); i++) {
+                char c = glob.charAt(i);
+                if (c == '*') {
+                    if (i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                        // "**/" 匹配零或多级文件夹，其余位置的 "**" 匹配任意内容
+                        if (i + 2 < glob.length() && glob.charAt(i + 2) == '/') {
+                            regex.append("(?:.*/)?");
+                            i += 2;
+                        } else {
+                            regex.append(".*");
+                            i++;
+                        }
+                    } else {
+                        regex.append("[^/]*");
+                    }
+                } else if (c == '?') {
+                    regex.append("[^/]");
+                } else if (c == '[' && glob.indexOf(']', i + 1) > i + 1) {
+                    int close = glob.indexOf(']', i + 1);
+                    String characterClass = glob.substring(i + 1, close);
+                    if (characterClass.startsWith("!")) {
+                        characterClass = "^" + characterClass.substring(1);
+                    }
+                    regex.append('[').append(characterClass).append(']');
+                    i = close;
+                } else if (c == '\\' && i + 1 < glob.length()) {
+                    appendLiteral(regex, glob.charAt(++i));
+                } else {
+                    appendLiteral(regex, c);
+                }
+            }
+            return regex.toString();
+        }
+
+        private static void appendLiteral(StringBuilder regex, char c) {
+            if (SPECIAL_CHARACTERS.indexOf(c) >= 0) {
+                regex.append('\\');
+            }
+            regex.append(c);
+        }
+
+        private boolean matches(Path base, Path path, boolean isDirectory) {
+            if (directoryOnly && !isDirectory) {
+                return false;
+            }
+            String target;
+            if (anchored) {
+                if (!path.startsWith(base)) {
+                    return false;
+                }
+                target = base.relativize(path).toString().replace('\\', '/');
+            } else {
+                target = path.getFileName().toString();
+            }
+            return pattern.matcher(target).matches();
+        }
+    }
+}
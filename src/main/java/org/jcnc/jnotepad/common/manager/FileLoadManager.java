@@ -0,0 +1,269 @@
+package org.jcnc.jnotepad.common.manager;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.event.Event;
+import javafx.event.EventHandler;
+import javafx.scene.control.ProgressIndicator;
+import org.jcnc.jnotepad.component.module.TextCodeArea;
+import org.jcnc.jnotepad.model.document.TextFileDecoder;
+import org.jcnc.jnotepad.model.enums.LineEnding;
+import org.jcnc.jnotepad.util.EncodingDetector;
+import org.jcnc.jnotepad.util.FileUtil;
+import org.jcnc.jnotepad.util.LogUtil;
+import org.jcnc.jnotepad.util.PopUpUtil;
+import org.jcnc.jnotepad.views.root.center.main.center.tab.CenterTab;
+import org.jcnc.jnotepad.views.root.center.main.center.tab.CenterTabPane;
+import org.slf4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 文件加载管理类
+ *
+ * <p>标签页先以空白只读的状态显示，编码检测与解码在文件线程中进行。解码出的文本按块放入有界队列，
+ * 由 JavaFX 线程在每一帧中追加有限的字符数，加载期间界面保持响应；队列已满时解码暂停，
+ * 排队的文本不会超过几个文本块。关闭标签页会取消加载。</p>
+ *
+ * @author gewuyou
+ */
+public class FileLoadManager {
+    private static final Logger logger = LogUtil.getLogger(FileLoadManager.class);
+    private static final FileLoadManager INSTANCE = new FileLoadManager();
+    /**
+     * 每一帧最多追加到文本域的字符数
+     */
+    private static final int MAX_CHARS_PER_PULSE = 512 * 1024;
+    /**
+     * 最多排队的文本块数量，JavaFX 线程来不及追加时暂停解码，避免整个文件堆积在队列中
+     */
+    private static final int MAX_QUEUED_CHUNKS = 4;
+    /**
+     * 队列已满时每次等待的时间（毫秒），期间检查加载是否已取消
+     */
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+    private FileLoadManager() {
+    }
+
+    public static FileLoadManager getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 在后台加载文件内容到标签页
+     *
+     * @param tab  已关联文件的标签页，文本域应为空
+     * @param file 文件
+     */
+    public void load(CenterTab tab, File file) {
+        load(tab, file, null, 0);
+    }
+
+    /**
+     * 在后台加载文件内容到标签页
+     *
+     * @param tab           已关联文件的标签页，文本域应为空
+     * @param file          文件
+     * @param charset       文件编码，为 null 时检测编码
+     * @param caretPosition 加载完成后的光标位置
+     */
+    public void load(CenterTab tab, File file, Charset charset, int caretPosition) {
+        load(tab, file, charset, caretPosition, -1);
+    }
+
+    /**
+     * 在后台加载文件内容到标签页
+     *
+     * @param tab           已关联文件的标签页，文本域应为空
+     * @param file          文件
+     * @param charset       文件编码，为 null 时检测编码
+     * @param caretPosition 加载完成后的光标位置
+     * @param topParagraph  加载完成后显示在顶部的段落，小于 0 时滚动到光标处
+     */
+    public void load(CenterTab tab, File file, Charset charset, int caretPosition, int topParagraph) {
+        new LoadTask(tab, file, charset, caretPosition, topParagraph).start();
+    }
+
+    /**
+     * 单个文件的加载任务
+     */
+    private static class LoadTask {
+        private final CenterTab tab;
+        private final File file;
+        private final Charset knownCharset;
+        private final int caretPosition;
+        private final int topParagraph;
+        /**
+         * 已解码、等待追加到文本域的文本块
+         */
+        private final BlockingQueue<String> chunks = new ArrayBlockingQueue<>(MAX_QUEUED_CHUNKS);
+        private final AnimationTimer timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                drain();
+            }
+        };
+        private volatile boolean cancelled;
+        /**
+         * 文件线程是否已结束，结束前所有文本块均已入队
+         */
+        private volatile boolean done;
+        /**
+         * 是否已读取完整个文件
+         */
+        private volatile boolean completed;
+        private volatile LineEnding lineEnding = LineEnding.LF;
+        private volatile IOException error;
+        /**
+         * 读取时的文件大小
+         */
+        private volatile long fileSize;
+        /**
+         * 开始读取前的文件修改时间，读取期间文件再被修改时之后仍能检测到
+         */
+        private volatile long lastModified;
+        private Future<?> future;
+        /**
+         * 关闭标签页时取消加载
+         */
+        private final EventHandler<Event> closedHandler = event -> cancel();
+
+        private LoadTask(CenterTab tab, File file, Charset knownCharset, int caretPosition, int topParagraph) {
+            this.tab = tab;
+            this.file = file;
+            this.knownCharset = knownCharset;
+            this.caretPosition = caretPosition;
+            this.topParagraph = topParagraph;
+        }
+
+        private void start() {
+            tab.getTextCodeArea().beginLoad();
+            ProgressIndicator progressIndicator = new ProgressIndicator();
+            progressIndicator.setPrefSize(14, 14);
+            tab.setGraphic(progressIndicator);
+            tab.addClosedHandler(closedHandler);
+            future = ThreadPoolManager.getFileThreadPool().submit(this::read);
+            timer.start();
+        }
+
+        /**
+         * 在文件线程中检测编码并解码
+         */
+        private void read() {
+            try {
+                lastModified = file.lastModified();
+                Charset charset = knownCharset;
+                if (charset == null) {
+                    charset = EncodingDetector.detectEncodingCharset(file);
+                    Charset detected = charset;
+                    Platform.runLater(() -> tab.setCharset(detected));
+                }
+                lineEnding = FileUtil.detectLineEnding(file.toPath(), charset);
+                fileSize = TextFileDecoder.decode(file.toPath(), charset, this::enqueue);
+                completed = true;
+            } catch (IOException e) {
+                error = e;
+            } catch (CancellationException e) {
+                logger.info("已取消加载文件: {}", file);
+            } finally {
+                done = true;
+            }
+        }
+
+        /**
+         * 将文本块放入队列，队列已满时等待 JavaFX 线程取走
+         *
+         * @param chunk 文本块
+         */
+        private void enqueue(String chunk) {
+            try {
+                while (!chunks.offer(chunk, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    checkCancelled();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException();
+            }
+            checkCancelled();
+        }
+
+        private void checkCancelled() {
+            if (cancelled) {
+                throw new CancellationException();
+            }
+        }
+
+        /**
+         * 在 JavaFX 线程中追加本帧的文本块
+         */
+        private void drain() {
+            // 先读取结束标记，保证之后队列中不会再有新的文本块
+            boolean finished = done;
+            StringBuilder batch = new StringBuilder();
+            String chunk;
+            while (batch.length() < MAX_CHARS_PER_PULSE && (chunk = chunks.poll()) != null) {
+                batch.append(chunk);
+            }
+            if (!batch.isEmpty()) {
+                tab.getTextCodeArea().appendText(batch.toString());
+            }
+            if (finished && chunks.isEmpty()) {
+                finish();
+            }
+        }
+
+        private void finish() {
+            timer.stop();
+            tab.removeClosedHandler(closedHandler);
+            tab.setGraphic(null);
+            if (cancelled) {
+                return;
+            }
+            TextCodeArea textCodeArea = tab.getTextCodeArea();
+            if (error != null || !completed) {
+                logger.error("读取文件失败: {}", file, error);
+                PopUpUtil.errorAlert("错误", "读写错误", "读取文件失败: " + file.getName(), null, null);
+                textCodeArea.finishLoad();
+                CenterTabPane.getInstance().getTabs().remove(tab);
+                return;
+            }
+            // 保存时换回文件原有的换行符
+            tab.setLineEnding(lineEnding);
+            textCodeArea.finishLoad();
+            textCodeArea.moveTo(Math.min(caretPosition, textCodeArea.getLength()));
+            if (topParagraph >= 0) {
+                textCodeArea.showParagraphAtTop(Math.min(topParagraph, textCodeArea.getParagraphs().size() - 1));
+            } else {
+                textCodeArea.requestFollowCaret();
+            }
+            // 设置关联文件最后的修改时间与读取到的位置
+            tab.markSynced(lastModified, fileSize);
+            if (tab.isFollow()) {
+                // 跟随期间保持只读，并读取加载期间追加的内容
+                textCodeArea.setEditable(false);
+                FileWatchManager.getInstance().follow(tab);
+            }
+            logger.info("已加载文件: {}", file);
+        }
+
+        /**
+         * 标签页关闭时取消加载
+         */
+        private void cancel() {
+            cancelled = true;
+            timer.stop();
+            if (future != null) {
+                future.cancel(false);
+            }
+            chunks.clear();
+        }
+    }
+}
@@ -0,0 +1,426 @@
+package org.jcnc.jnotepad.common.manager;
+
+import org.jcnc.jnotepad.controller.config.UserConfigController;
+import org.jcnc.jnotepad.model.document.DirtyRangeTracker;
+import org.jcnc.jnotepad.model.document.DocumentSnapshot;
+import org.jcnc.jnotepad.model.entity.SaveEvent;
+import org.jcnc.jnotepad.model.enums.LineEnding;
+import org.jcnc.jnotepad.util.LogUtil;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * 文件保存管理类
+ *
+ * <p>直接从文档快照的各个段落编码写入文件通道，不生成完整的字符串。默认先写入同目录下的临时文件，
+ * 按配置刷新到磁盘后再原子替换目标文件，保存中途崩溃不会留下不完整的文件。
+ * 每次保存的字节数、耗时与失败原因通过保存事件通知监听器。</p>
+ *
+ * <p>大文件中只修改了少量内容时，若每个字符编码后的字节数固定，可以只在原位置改写修改过的区间，
+ * 不必重写整个文件。</p>
+ *
+ * @author gewuyou
+ */
+public class FileSaveManager {
+    private static final Logger logger = LogUtil.getLogger(FileSaveManager.class);
+    private static final FileSaveManager INSTANCE = new FileSaveManager();
+    /**
+     * 编码缓冲区的字符数
+     */
+    private static final int CHAR_BUFFER_SIZE = 32 * 1024;
+    private static final double NANOS_PER_MILLI = 1_000_000D;
+    /**
+     * 原位改写的最大字符数，超过时重写整个文件
+     */
+    private static final int MAX_PATCH_CHARS = 1024 * 1024;
+    /**
+     * 每个保存线程复用的编码缓冲区
+     */
+    private static final ThreadLocal<EncodeBuffers> BUFFERS = ThreadLocal.withInitial(EncodeBuffers::new);
+    private final List<Consumer<SaveEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    private FileSaveManager() {
+        addSaveListener(event -> {
+            if (event.isSuccess()) {
+                logger.info("已保存文件: {}，{} 字节，耗时 {} ms", event.getPath(), event.getBytes(),
+                        String.format("%.1f", event.getElapsedNanos() / NANOS_PER_MILLI));
+            } else {
+                logger.error("保存文件失败: {}", event.getPath(), event.getError());
+            }
+        });
+    }
+
+    public static FileSaveManager getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 添加保存事件监听器，监听器在保存所在的线程中调用
+     *
+     * @param listener 监听器
+     */
+    public void addSaveListener(Consumer<SaveEvent> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeSaveListener(Consumer<SaveEvent> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * 将文档快照写入同目录下的临时文件后原子替换目标文件
+     *
+     * <p>目标文件始终保持旧内容或新内容之一。</p>
+     *
+     * @param target     目标文件
+     * @param snapshot   文档快照
+     * @param charset    编码
+     * @param lineEnding 写入的换行符
+     * @throws IOException 写入或替换失败
+     */
+    public void saveAtomically(Path target, DocumentSnapshot snapshot, Charset charset, LineEnding lineEnding) throws IOException {
+        long start = System.nanoTime();
+        long[] written = new long[1];
+        try {
+            Path parent = target.toAbsolutePath().getParent();
+            Path temp = Files.createTempFile(parent, "." + target.getFileName(), ".tmp");
+            try {
+                // 临时文件默认仅所有者可读写，替换前沿用原文件权限
+                if (Files.exists(target)) {
+                    try {
+                        Files.setPosixFilePermissions(temp, Files.getPosixFilePermissions(target));
+                    } catch (UnsupportedOperationException ignored) {
+                        // 非 POSIX 文件系统无需处理
+                    }
+                }
+                write(temp, snapshot, charset, lineEnding, written);
+                try {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+                if (isSyncOnSave()) {
+                    syncDirectory(parent);
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            fireSaveEvent(new SaveEvent(target, written[0], System.nanoTime() - start, e));
+            throw e;
+        }
+        fireSaveEvent(new SaveEvent(target, written[0], System.nanoTime() - start, null));
+    }
+
+    /**
+     * 将文档快照直接写入目标文件，用于无法在目标目录中创建临时文件的情况
+     *
+     * @param target     目标文件
+     * @param snapshot   文档快照
+     * @param charset    编码
+     * @param lineEnding 写入的换行符
+     * @throws IOException 写入失败
+     */
+    public void saveDirectly(Path target, DocumentSnapshot snapshot, Charset charset, LineEnding lineEnding) throws IOException {
+        long start = System.nanoTime();
+        long[] written = new long[1];
+        try {
+            write(target, snapshot, charset, lineEnding, written);
+        } catch (IOException e) {
+            fireSaveEvent(new SaveEvent(target, written[0], System.nanoTime() - start, e));
+            throw e;
+        }
+        fireSaveEvent(new SaveEvent(target, written[0], System.nanoTime() - start, null));
+    }
+
+    /**
+     * 在原位置改写上次保存后修改过的区间
+     *
+     * <p>仅在以下条件均满足时改写，否则不写入任何内容并返回 false，由调用方重写整个文件：</p>
+     * <ul>
+     *     <li>换行符为 {@code \n}，且文件中每个字符编码后的字节数相同，字符偏移可直接换算为字节偏移</li>
+     *     <li>文件大小与上次保存时一致，修改过的字符总数不超过上限</li>
+     * </ul>
+     * <p>改写不是原子的，写入失败时文件内容不确定，调用方应重写整个文件。</p>
+     *
+     * @param target      目标文件
+     * @param snapshot    文档快照
+     * @param dirtyRanges 上次保存后修改过的区间，为 null 时不改写
+     * @param charset     编码
+     * @param lineEnding  写入的换行符
+     * @return 是否已改写
+     * @throws IOException 写入失败
+     */
+    public boolean savePatch(Path target, DocumentSnapshot snapshot, DirtyRangeTracker.DirtyRanges dirtyRanges,
+                             Charset charset, LineEnding lineEnding) throws IOException {
+        if (dirtyRanges == null || lineEnding != LineEnding.LF) {
+            return false;
+        }
+        long start = System.nanoTime();
+        int width = charWidth(charset);
+        int[][] ranges = dirtyRanges.getRanges();
+        long dirtyChars = 0;
+        for (int[] range : ranges) {
+            dirtyChars += range[1] - range[0];
+        }
+        int cleanLength = dirtyRanges.getCleanLength();
+        int length = snapshot.length();
+        if (width <= 0 || dirtyChars > MAX_PATCH_CHARS || Files.size(target) != (long) cleanLength * width) {
+            return false;
+        }
+        // 先编码全部区间，确认字节数符合预期后再写入
+        ByteBuffer[] encoded = new ByteBuffer[ranges.length];
+        CharsetEncoder encoder = newEncoder(charset);
+        for (int i = 0; i < ranges.length; i++) {
+            String text = snapshot.subSequence(ranges[i][0], ranges[i][1]).toString();
+            if (text.indexOf('\r') >= 0) {
+                return false;
+            }
+            try {
+                encoded[i] = encoder.encode(CharBuffer.wrap(text));
+            } catch (CharacterCodingException e) {
+                return false;
+            }
+            if (encoded[i].remaining() != (long) text.length() * width) {
+                return false;
+            }
+        }
+        long written = 0;
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            for (int i = 0; i < ranges.length; i++) {
+                // 改写后的换行与文件中前一个 \r 会组成一个 \r\n，重新打开时行数改变
+                if (encoded[i].hasRemaining() && snapshot.charAt(ranges[i][0]) == '\n'
+                        && isCarriageReturn(channel, ranges[i][0] - 1L, width, charset)) {
+                    return false;
+                }
+            }
+            for (int i = 0; i < ranges.length; i++) {
+                long position = (long) ranges[i][0] * width;
+                while (encoded[i].hasRemaining()) {
+                    int count = channel.write(encoded[i], position);
+                    position += count;
+                    written += count;
+                }
+            }
+            if (length < cleanLength) {
+                channel.truncate((long) length * width);
+            }
+            if (isSyncOnSave()) {
+                channel.force(true);
+            }
+        } catch (IOException e) {
+            fireSaveEvent(new SaveEvent(target, written, System.nanoTime() - start, e));
+            throw e;
+        }
+        fireSaveEvent(new SaveEvent(target, written, System.nanoTime() - start, null));
+        return true;
+    }
+
+    /**
+     * 获取每个字符编码后的字节数，编码会写入字节序标记等额外内容时返回 0
+     *
+     * @param charset 编码
+     * @return 字节数
+     */
+    private static int charWidth(Charset charset) {
+        try {
+            CharsetEncoder encoder = newEncoder(charset);
+            int single = encoder.encode(CharBuffer.wrap("a")).remaining();
+            int pair = encoder.encode(CharBuffer.wrap("aa")).remaining();
+            return pair == single * 2 ? single : 0;
+        } catch (CharacterCodingException | UnsupportedOperationException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * 判断文件中指定字符是否为 {@code \r}
+     *
+     * @param channel 文件通道
+     * @param index   字符偏移
+     * @param width   每个字符的字节数
+     * @param charset 编码
+     * @return 是否为 {@code \r}
+     * @throws IOException 读取失败
+     */
+    private static boolean isCarriageReturn(FileChannel channel, long index, int width, Charset charset) throws IOException {
+        if (index < 0) {
+            return false;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(width);
+        long position = index * width;
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                return false;
+            }
+        }
+        buffer.flip();
+        return "\r".equals(charset.decode(buffer).toString());
+    }
+
+    private static CharsetEncoder newEncoder(Charset charset) {
+        return charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    /**
+     * 编码文档快照并写入文件
+     *
+     * @param target     文件
+     * @param snapshot   文档快照
+     * @param charset    编码
+     * @param lineEnding 换行符
+     * @param written    写入的字节数，长度为 1 的数组
+     * @throws IOException 写入失败
+     */
+    private void write(Path target, DocumentSnapshot snapshot, Charset charset, LineEnding lineEnding, long[] written) throws IOException {
+        EncodeBuffers buffers = BUFFERS.get();
+        CharsetEncoder encoder = buffers.encoder(charset);
+        CharBuffer chars = buffers.chars;
+        ByteBuffer bytes = buffers.bytes;
+        chars.clear();
+        bytes.clear();
+        String separator = lineEnding.getValue();
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            try {
+                snapshot.forEachSegment(segment -> {
+                    try {
+                        for (int i = 0; i < segment.length(); i++) {
+                            char c = segment.charAt(i);
+                            // 预留换行符的空间
+                            if (chars.remaining() < separator.length()) {
+                                encode(encoder, chars, bytes, channel, false, written);
+                            }
+                            if (c == '\n') {
+                                chars.put(separator);
+                            } else {
+                                chars.put(c);
+                            }
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            encode(encoder, chars, bytes, channel, true, written);
+            if (isSyncOnSave()) {
+                channel.force(true);
+            }
+        }
+    }
+
+    /**
+     * 编码字符缓冲区中的内容并写入文件通道，未能编码的字符（如不完整的代理对）留在缓冲区中
+     *
+     * @param encoder    编码器
+     * @param chars      字符缓冲区，处于写入模式
+     * @param bytes      字节缓冲区
+     * @param channel    文件通道
+     * @param endOfInput 是否为最后一段输入
+     * @param written    写入的字节数
+     * @throws IOException 写入失败
+     */
+    private static void encode(CharsetEncoder encoder, CharBuffer chars, ByteBuffer bytes, FileChannel channel,
+                               boolean endOfInput, long[] written) throws IOException {
+        chars.flip();
+        while (true) {
+            CoderResult result = encoder.encode(chars, bytes, endOfInput);
+            if (result.isError()) {
+                result.throwException();
+            }
+            if (result.isOverflow()) {
+                drain(bytes, channel, written);
+                continue;
+            }
+            break;
+        }
+        if (endOfInput) {
+            while (encoder.flush(bytes).isOverflow()) {
+                drain(bytes, channel, written);
+            }
+            encoder.reset();
+        }
+        drain(bytes, channel, written);
+        chars.compact();
+    }
+
+    private static void drain(ByteBuffer bytes, FileChannel channel, long[] written) throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            written[0] += channel.write(bytes);
+        }
+        bytes.clear();
+    }
+
+    /**
+     * 刷新目录，使替换操作本身在崩溃后也能保留，不支持的平台上忽略
+     *
+     * @param directory 目录
+     */
+    private static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ignored) {
+            // 部分平台不支持打开目录
+        }
+    }
+
+    private static boolean isSyncOnSave() {
+        return UserConfigController.getInstance().isSyncOnSave();
+    }
+
+    private void fireSaveEvent(SaveEvent event) {
+        for (Consumer<SaveEvent> listener : listeners) {
+            try {
+                listener.accept(event);
+            } catch (RuntimeException e) {
+                logger.error("保存事件监听器执行异常", e);
+            }
+        }
+    }
+
+    /**
+     * 编码使用的缓冲区
+     */
+    private static class EncodeBuffers {
+        private final CharBuffer chars = CharBuffer.allocate(CHAR_BUFFER_SIZE);
+        private final ByteBuffer bytes = ByteBuffer.allocateDirect(CHAR_BUFFER_SIZE * 4);
+        private CharsetEncoder encoder;
+
+        /**
+         * 获取指定编码的编码器，编码相同时复用上一次的编码器
+         *
+         * @param charset 编码
+         * @return 编码器
+         */
+        private CharsetEncoder encoder(Charset charset) {
+            if (encoder == null || !encoder.charset().equals(charset)) {
+                encoder = newEncoder(charset);
+            }
+            encoder.reset();
+            return encoder;
+        }
+    }
+}
@@ -0,0 +1,449 @@
+package org.jcnc.jnotepad.common.manager;
+
+import javafx.application.Platform;
+import javafx.collections.ListChangeListener;
+import javafx.scene.control.Tab;
+import org.jcnc.jnotepad.component.module.TextCodeArea;
+import org.jcnc.jnotepad.model.document.TextFileDecoder;
+import org.jcnc.jnotepad.model.enums.LineEnding;
+import org.jcnc.jnotepad.util.LogUtil;
+import org.jcnc.jnotepad.views.manager.CenterTabPaneManager;
+import org.jcnc.jnotepad.views.root.center.main.center.tab.CenterTab;
+import org.jcnc.jnotepad.views.root.center.main.center.tab.CenterTabPane;
+import org.slf4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * 文件监视管理类
+ *
+ * <p>在后台线程中通过 {@link WatchService} 监视所有已打开文件所在的目录，同一目录只注册一次，
+ * 不再有标签页引用时取消注册。短时间内的多次事件合并后在 JavaFX 线程中处理：关联文件被外部修改的标签页标记为过期，
+ * 选中的标签页立即提示重新加载。</p>
+ *
+ * <p>文件只在用户确认重新加载后读取；上次同步位置之前的内容未变、只是在末尾追加了内容时，只读取追加的部分。
+ * 跟随文件末尾的标签页不提示，文件增长时直接分批读取追加的部分。</p>
+ *
+ * @author gewuyou
+ */
+public class FileWatchManager {
+    private static final Logger logger = LogUtil.getLogger(FileWatchManager.class);
+    private static final FileWatchManager INSTANCE = new FileWatchManager();
+    /**
+     * 收到事件后等待的时间（毫秒），期间的事件合并处理
+     */
+    private static final long COALESCE_DELAY = 200;
+    /**
+     * 判断文件是否只追加了内容时比较的文档末尾字符数
+     */
+    private static final int TAIL_CHECK_CHARS = 256;
+    /**
+     * 只读取追加部分的最大字节数，超过时重新加载整个文件
+     */
+    private static final long MAX_APPENDED_BYTES = 64L * 1024 * 1024;
+    /**
+     * 跟随文件末尾时每批读取的最大字节数
+     */
+    private static final long FOLLOW_BATCH_BYTES = 4L * 1024 * 1024;
+    /**
+     * 已注册的目录，只在 JavaFX 线程中访问
+     */
+    private final Map<Path, WatchKey> watchKeys = new HashMap<>();
+    /**
+     * 正在读取追加内容的跟随标签页，值表示读取期间是否又收到了修改事件，只在 JavaFX 线程中访问
+     */
+    private final Map<CenterTab, Boolean> followReads = new HashMap<>();
+    private WatchService watchService;
+
+    private FileWatchManager() {
+    }
+
+    public static FileWatchManager getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 开始监视已打开的文件，标签页增减时自动更新监视的目录
+     */
+    public void start() {
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+        } catch (IOException e) {
+            logger.warn("无法创建文件监视服务，只在选中标签页时检查外部修改", e);
+            return;
+        }
+        Thread watchThread = new Thread(this::watch, "JNotepad-FileWatch-Thread");
+        watchThread.setDaemon(true);
+        watchThread.start();
+        CenterTabPane.getInstance().getTabs().addListener((ListChangeListener<Tab>) change -> updateWatchedDirectories());
+        updateWatchedDirectories();
+    }
+
+    /**
+     * 按当前标签页关联的文件更新监视的目录，标签页关联的文件改变后调用
+     */
+    public void updateWatchedDirectories() {
+        if (watchService == null) {
+            return;
+        }
+        Map<Path, Integer> references = new HashMap<>();
+        for (Tab tab : CenterTabPane.getInstance().getTabs()) {
+            Path directory = getDirectory((File) tab.getUserData());
+            if (directory != null) {
+                references.merge(directory, 1, Integer::sum);
+            }
+        }
+        Iterator<Map.Entry<Path, WatchKey>> iterator = watchKeys.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Path, WatchKey> entry = iterator.next();
+            if (!references.containsKey(entry.getKey())) {
+                entry.getValue().cancel();
+                iterator.remove();
+            }
+        }
+        for (Path directory : references.keySet()) {
+            if (watchKeys.containsKey(directory)) {
+                continue;
+            }
+            try {
+                watchKeys.put(directory, directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE));
+            } catch (IOException e) {
+                logger.warn("无法监视目录: {}", directory, e);
+            }
+        }
+    }
+
+    /**
+     * 在监视线程中等待事件，合并后交给 JavaFX 线程处理
+     */
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                // 等待一段时间，合并同一次写入产生的多个事件
+                Thread.sleep(COALESCE_DELAY);
+                Set<Path> changed = new HashSet<>();
+                while (key != null) {
+                    collectEvents(key, changed);
+                    key = watchService.poll();
+                }
+                Platform.runLater(() -> onFilesChanged(changed));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException ignored) {
+            // 监视服务已关闭
+        }
+    }
+
+    private static void collectEvents(WatchKey key, Set<Path> changed) {
+        Path directory = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // 事件丢失时检查目录下的所有文件
+                changed.add(directory);
+            } else {
+                changed.add(directory.resolve((Path) event.context()));
+            }
+        }
+        key.reset();
+    }
+
+    /**
+     * 标记关联文件被外部修改的标签页，选中的标签页立即提示重新加载，跟随文件末尾的标签页直接读取追加的内容
+     *
+     * @param changed 发生变化的文件，事件丢失时为所在目录
+     */
+    private void onFilesChanged(Set<Path> changed) {
+        CenterTab selected = CenterTabPaneManager.getInstance().getSelected();
+        for (Tab item : CenterTabPane.getInstance().getTabs()) {
+            CenterTab tab = (CenterTab) item;
+            File file = (File) tab.getUserData();
+            if (file == null) {
+                continue;
+            }
+            Path path = file.getAbsoluteFile().toPath();
+            if (!changed.contains(path) && !changed.contains(path.getParent())) {
+                continue;
+            }
+            // 自身保存引起的事件，保存完成后会更新修改时间
+            if (AutoSaveManager.getInstance().isWriting(tab)
+                    || Long.valueOf(file.lastModified()).equals(tab.getLastModifiedTimeOfAssociatedFile())) {
+                continue;
+            }
+            if (tab.isFollow()) {
+                follow(tab);
+                continue;
+            }
+            tab.setStale(true);
+            if (tab == selected) {
+                CenterTabPaneManager.getInstance().checkFileTabStatus(tab);
+            }
+        }
+    }
+
+    /**
+     * 从关联文件重新加载标签页，文件只在末尾追加了内容时只读取追加的部分
+     *
+     * @param tab 标签页
+     */
+    public void reload(CenterTab tab) {
+        File file = (File) tab.getUserData();
+        TextCodeArea textCodeArea = tab.getTextCodeArea();
+        if (file == null || !tab.isContentLoaded() || textCodeArea.isLoading()) {
+            return;
+        }
+        // 有未保存修改时文档与文件不再对应，重新加载整个文件
+        if (tab.getSyncedFileSize() == null || AutoSaveManager.getInstance().hasUnsavedChanges(tab)
+                || !TextFileDecoder.isStateless(tab.getCharset())) {
+            reloadFully(tab, file);
+            return;
+        }
+        submitAppendedRead(tab, file, MAX_APPENDED_BYTES, (expectedLength, appended) -> {
+            if (!isCurrent(tab, file)) {
+                return;
+            }
+            // 读取期间文档被修改时同样重新加载整个文件
+            if (appended == null || appended.hasMore || textCodeArea.getLength() != expectedLength
+                    || AutoSaveManager.getInstance().hasUnsavedChanges(tab)) {
+                reloadFully(tab, file);
+                return;
+            }
+            appendToDocument(tab, file, appended);
+        });
+    }
+
+    /**
+     * 读取跟随文件末尾的标签页在上次同步位置之后追加的内容，追加的内容较多时分批读取
+     *
+     * @param tab 标签页
+     */
+    public void follow(CenterTab tab) {
+        File file = (File) tab.getUserData();
+        if (file == null || !tab.isFollow() || !tab.isContentLoaded() || tab.getTextCodeArea().isLoading()) {
+            return;
+        }
+        if (followReads.containsKey(tab)) {
+            // 当前批次读取完成后再读取一次
+            followReads.put(tab, true);
+            return;
+        }
+        if (tab.getSyncedFileSize() == null || !TextFileDecoder.isStateless(tab.getCharset())) {
+            reloadFully(tab, file);
+            return;
+        }
+        followReads.put(tab, false);
+        submitAppendedRead(tab, file, FOLLOW_BATCH_BYTES, (expectedLength, appended) -> {
+            boolean changedAgain = Boolean.TRUE.equals(followReads.remove(tab));
+            if (!isCurrent(tab, file) || !tab.isFollow()) {
+                return;
+            }
+            // 文件被截短或重写（如日志轮转）时重新加载整个文件
+            if (appended == null || tab.getTextCodeArea().getLength() != expectedLength) {
+                reloadFully(tab, file);
+                return;
+            }
+            appendToDocument(tab, file, appended);
+            if (appended.hasMore || changedAgain) {
+                follow(tab);
+            }
+        });
+    }
+
+    /**
+     * 在文件线程中读取追加的内容，完成后在 JavaFX 线程中回调
+     *
+     * @param tab      标签页
+     * @param file     关联文件
+     * @param maxBytes 最多读取的字节数
+     * @param callback 回调，参数为读取前的文档长度与追加的内容，文件不只是追加了内容时内容为 null
+     */
+    private void submitAppendedRead(CenterTab tab, File file, long maxBytes, BiConsumer<Integer, AppendedText> callback) {
+        TextCodeArea textCodeArea = tab.getTextCodeArea();
+        int length = textCodeArea.getLength();
+        String documentTail = textCodeArea.getText(Math.max(0, length - TAIL_CHECK_CHARS), length);
+        Charset charset = tab.getCharset();
+        LineEnding lineEnding = tab.getLineEnding();
+        long syncedSize = tab.getSyncedFileSize();
+        ThreadPoolManager.getFileThreadPool().submit(() -> {
+            AppendedText appended = null;
+            try {
+                appended = readAppended(file.toPath(), charset, lineEnding, syncedSize, documentTail, maxBytes);
+            } catch (IOException e) {
+                logger.warn("读取追加的内容失败，改为重新加载整个文件: {}", file, e);
+            }
+            AppendedText result = appended;
+            Platform.runLater(() -> callback.accept(length, result));
+        });
+    }
+
+    private static boolean isCurrent(CenterTab tab, File file) {
+        return tab.getTabPane() != null && file.equals(tab.getUserData()) && !tab.getTextCodeArea().isLoading();
+    }
+
+    /**
+     * 将追加的内容添加到文档末尾，光标位于末尾时保持显示末尾
+     * <p>
+     * 追加后清空撤销记录，否则撤销会删去追加的内容，自动保存随即把文件截短
+     *
+     * @param tab      标签页
+     * @param file     关联文件
+     * @param appended 追加的内容
+     */
+    private void appendToDocument(CenterTab tab, File file, AppendedText appended) {
+        TextCodeArea textCodeArea = tab.getTextCodeArea();
+        boolean caretAtEnd = textCodeArea.getCaretPosition() == textCodeArea.getLength();
+        if (!appended.text.isEmpty()) {
+            textCodeArea.appendText(appended.text);
+            textCodeArea.getUndoManager().forgetHistory();
+        }
+        if (caretAtEnd) {
+            textCodeArea.moveTo(textCodeArea.getLength());
+            textCodeArea.requestFollowCaret();
+        }
+        // 追加的内容已在文件中，无需写回
+        AutoSaveManager.getInstance().discardPendingSaves(tab);
+        tab.markSynced(appended.lastModified, appended.syncedSize);
+        logger.debug("已读取文件追加的 {} 个字符: {}", appended.text.length(), file);
+    }
+
+    private void reloadFully(CenterTab tab, File file) {
+        TextCodeArea textCodeArea = tab.getTextCodeArea();
+        int caretPosition = textCodeArea.getCaretPosition();
+        // 光标位于末尾时重新加载后仍位于末尾
+        if (caretPosition == textCodeArea.getLength()) {
+            caretPosition = Integer.MAX_VALUE;
+        }
+        // 先标记为加载中，清空内容引起的文本修改不会触发自动保存
+        textCodeArea.beginLoad();
+        AutoSaveManager.getInstance().discardPendingSaves(tab);
+        textCodeArea.unloadContent();
+        FileLoadManager.getInstance().load(tab, file, tab.getCharset(), caretPosition);
+    }
+
+    /**
+     * 读取文件在上次同步位置之后追加的内容
+     *
+     * @param path         文件
+     * @param charset      编码，解码不依赖前文状态
+     * @param lineEnding   文件的换行符
+     * @param syncedSize   上次同步时的文件大小
+     * @param documentTail 文档末尾的一段文本，用于确认同步位置之前的内容未变
+     * @param maxBytes     最多读取的字节数
+     * @return 追加的内容，文件不只是追加了内容时返回 null
+     * @throws IOException 读取失败
+     */
+    private static AppendedText readAppended(Path path, Charset charset, LineEnding lineEnding, long syncedSize,
+                                             String documentTail, long maxBytes) throws IOException {
+        // 先读取修改时间，之后再追加的内容会再次触发修改事件
+        long lastModified = path.toFile().lastModified();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < syncedSize) {
+                return null;
+            }
+            ByteBuffer expected;
+            try {
+                expected = charset.newEncoder().encode(CharBuffer.wrap(documentTail.replace("\n", lineEnding.getValue())));
+            } catch (CharacterCodingException e) {
+                return null;
+            }
+            if (expected.remaining() > syncedSize) {
+                return null;
+            }
+            ByteBuffer actual = ByteBuffer.allocate(expected.remaining());
+            readFully(channel, actual, syncedSize - expected.remaining());
+            actual.flip();
+            if (!actual.equals(expected)) {
+                return null;
+            }
+            long count = Math.min(size - syncedSize, maxBytes);
+            ByteBuffer bytes = ByteBuffer.allocate((int) count);
+            channel.position(syncedSize);
+            while (bytes.hasRemaining() && channel.read(bytes) >= 0) {
+                // 从上次同步位置顺序读取
+            }
+            bytes.flip();
+            CharsetDecoder decoder = charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            CharBuffer chars = CharBuffer.allocate((int) Math.ceil(bytes.remaining() * (double) decoder.maxCharsPerByte()) + 1);
+            // 末尾不完整的字符留到下次读取
+            decoder.decode(bytes, chars, false);
+            chars.flip();
+            String text = chars.toString();
+            long consumed = syncedSize + bytes.position();
+            // 末尾的 \r 可能与之后写入的 \n 组成一个换行，同样留到下次读取
+            if (text.endsWith("\r")) {
+                text = text.substring(0, text.length() - 1);
+                consumed -= charset.encode("\r").remaining();
+            }
+            // 同步位置之前的 \r 与追加的 \n 组成一个换行
+            if (lineEnding == LineEnding.CR && documentTail.endsWith("\n") && text.startsWith("\n")) {
+                text = text.substring(1);
+            }
+            return new AppendedText(TextFileDecoder.normalizeLineSeparators(text), consumed, lastModified, count < size - syncedSize);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("文件在读取期间被截短");
+            }
+        }
+    }
+
+    private static Path getDirectory(File file) {
+        return file == null ? null : file.getAbsoluteFile().toPath().getParent();
+    }
+
+    /**
+     * 文件追加的内容
+     */
+    private static class AppendedText {
+        /**
+         * 换行符已规范化的文本
+         */
+        private final String text;
+        /**
+         * 读取到的文件位置
+         */
+        private final long syncedSize;
+        private final long lastModified;
+        /**
+         * 是否还有未读取的内容
+         */
+        private final boolean hasMore;
+
+        private AppendedText(String text, long syncedSize, long lastModified, boolean hasMore) {
+            this.text = text;
+            this.syncedSize = syncedSize;
+            this.lastModified = lastModified;
+            this.hasMore = hasMore;
+        }
+    }
+}
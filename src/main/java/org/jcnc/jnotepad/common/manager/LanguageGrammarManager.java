@@ -0,0 +1,74 @@
+package org.jcnc.jnotepad.common.manager;
+
+import org.jcnc.jnotepad.component.module.highlight.CLanguageGrammar;
+import org.jcnc.jnotepad.component.module.highlight.JavaLanguageGrammar;
+import org.jcnc.jnotepad.component.module.highlight.JsonLanguageGrammar;
+import org.jcnc.jnotepad.component.module.highlight.LanguageGrammar;
+import org.jcnc.jnotepad.util.LogUtil;
+import org.slf4j.Logger;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 语言语法管理类
+ *
+ * <p>按文件扩展名登记语言语法。语法及其词法分析器只创建一次，由所有标签页共享。</p>
+ *
+ * @author gewuyou
+ */
+public class LanguageGrammarManager {
+    private static final Logger logger = LogUtil.getLogger(LanguageGrammarManager.class);
+    private static final LanguageGrammarManager INSTANCE = new LanguageGrammarManager();
+    /**
+     * 扩展名到语法的映射，插件可能在后台线程中注册
+     */
+    private final Map<String, LanguageGrammar> grammars = new ConcurrentHashMap<>();
+    /**
+     * 新建标签页使用的默认语法
+     */
+    private final LanguageGrammar defaultGrammar = new JavaLanguageGrammar();
+
+    private LanguageGrammarManager() {
+        registerGrammar(defaultGrammar);
+        registerGrammar(new CLanguageGrammar());
+        registerGrammar(new JsonLanguageGrammar());
+    }
+
+    public static LanguageGrammarManager getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 注册语法，扩展名与已有语法相同时覆盖已有语法
+     *
+     * @param grammar 语法
+     */
+    public void registerGrammar(LanguageGrammar grammar) {
+        for (String extension : grammar.getExtensions()) {
+            LanguageGrammar previous = grammars.put(extension.toLowerCase(Locale.ROOT), grammar);
+            if (previous != null && previous != grammar) {
+                logger.info("扩展名 {} 的语法由 {} 替换为 {}", extension, previous.getName(), grammar.getName());
+            }
+        }
+    }
+
+    /**
+     * 根据文件名获取语法
+     *
+     * @param fileName 文件名
+     * @return 语法，没有对应语法时返回 null
+     */
+    public LanguageGrammar getGrammarByFileName(String fileName) {
+        int index = fileName.lastIndexOf('.');
+        if (index < 0 || index == fileName.length() - 1) {
+            return null;
+        }
+        return grammars.get(fileName.substring(index + 1).toLowerCase(Locale.ROOT));
+    }
+
+    public LanguageGrammar getDefaultGrammar() {
+        return defaultGrammar;
+    }
+}
@@ -0,0 +1,139 @@
+package org.jcnc.jnotepad.common.manager;
+
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.scene.control.Tab;
+import javafx.util.Duration;
+import org.jcnc.jnotepad.component.module.TextCodeArea;
+import org.jcnc.jnotepad.controller.config.UserConfigController;
+import org.jcnc.jnotepad.util.LogUtil;
+import org.jcnc.jnotepad.views.root.center.main.center.tab.CenterTab;
+import org.jcnc.jnotepad.views.root.center.main.center.tab.CenterTabPane;
+import org.slf4j.Logger;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * 标签页休眠管理类
+ *
+ * <p>记录每个标签页最近一次被选中的时间。保留内容的标签页数量超过上限或堆内存占用过高时，
+ * 按最久未访问的顺序休眠已保存的文件标签页：只保留关联文件、编码、光标位置与滚动位置（顶部显示的段落），
+ * 释放文本域内容。休眠的标签页再次被选中时从文件重新加载，撤销记录不会保留。</p>
+ *
+ * @author gewuyou
+ */
+public class TabHibernationManager {
+    private static final Logger logger = LogUtil.getLogger(TabHibernationManager.class);
+    private static final TabHibernationManager INSTANCE = new TabHibernationManager();
+    /**
+     * 堆内存占用比例超过该值时开始休眠标签页
+     */
+    private static final double HEAP_USAGE_LIMIT = 0.75;
+    /**
+     * 定期检查的间隔（秒）
+     */
+    private static final double CHECK_INTERVAL = 30;
+    /**
+     * 标签页最近一次被选中的序号，只在 JavaFX 线程中访问
+     */
+    private final Map<CenterTab, Long> lastAccess = new WeakHashMap<>();
+    private final Timeline checkTimeline = new Timeline(new KeyFrame(Duration.seconds(CHECK_INTERVAL), event -> enforceLimits()));
+    private long accessCounter;
+
+    private TabHibernationManager() {
+        checkTimeline.setCycleCount(Timeline.INDEFINITE);
+    }
+
+    public static TabHibernationManager getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 开始定期检查内存占用
+     */
+    public void start() {
+        checkTimeline.play();
+    }
+
+    /**
+     * 记录标签页被选中，并检查是否需要休眠其他标签页
+     *
+     * @param tab 被选中的标签页
+     */
+    public void onTabSelected(CenterTab tab) {
+        lastAccess.put(tab, ++accessCounter);
+        enforceLimits();
+    }
+
+    /**
+     * 休眠超出数量上限的标签页；堆内存占用过高时额外休眠一个标签页
+     */
+    public void enforceLimits() {
+        List<CenterTab> loadedTabs = new ArrayList<>();
+        for (Tab tab : CenterTabPane.getInstance().getTabs()) {
+            CenterTab centerTab = (CenterTab) tab;
+            if (centerTab.isContentLoaded() && !centerTab.isReadOnly()) {
+                loadedTabs.add(centerTab);
+            }
+        }
+        int excess = loadedTabs.size() - UserConfigController.getInstance().getMaxLoadedTabs();
+        // 释放的内存要等到垃圾回收后才体现，每次检查最多因内存占用休眠一个标签页
+        if (excess <= 0 && isHeapUsageHigh()) {
+            excess = 1;
+        }
+        if (excess <= 0) {
+            return;
+        }
+        loadedTabs.sort(Comparator.comparingLong(tab -> lastAccess.getOrDefault(tab, 0L)));
+        for (CenterTab tab : loadedTabs) {
+            if (excess <= 0) {
+                break;
+            }
+            if (canHibernate(tab)) {
+                hibernate(tab);
+                excess--;
+            }
+        }
+    }
+
+    /**
+     * 判断标签页能否休眠：选中的、未关联文件的、正在加载的、有未保存修改的或文件已被外部修改的标签页不休眠
+     *
+     * @param tab 标签页
+     * @return 能否休眠
+     */
+    private boolean canHibernate(CenterTab tab) {
+        if (tab.isSelected() || tab.getTextCodeArea().isLoading()) {
+            return false;
+        }
+        File file = (File) tab.getUserData();
+        if (file == null || !tab.isRelevance() || AutoSaveManager.getInstance().hasUnsavedChanges(tab)) {
+            return false;
+        }
+        // 外部修改需要在重新选中时提示用户，不能直接从文件重新加载
+        return Long.valueOf(file.lastModified()).equals(tab.getLastModifiedTimeOfAssociatedFile());
+    }
+
+    private void hibernate(CenterTab tab) {
+        TextCodeArea textCodeArea = tab.getTextCodeArea();
+        int caretPosition = textCodeArea.getCaretPosition();
+        // 未显示过的标签页没有可见段落，重新加载后滚动到光标处
+        int topParagraph = textCodeArea.getVisibleParagraphs().isEmpty()
+                ? -1 : textCodeArea.firstVisibleParToAllParIndex();
+        // 先标记为未加载，清空内容引起的文本修改不会触发自动保存
+        tab.deferContentLoad(tab.getCharset(), caretPosition, topParagraph);
+        tab.getTextCodeArea().unloadContent();
+        logger.info("已休眠标签页: {}", tab.getText());
+    }
+
+    private static boolean isHeapUsageHigh() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = runtime.totalMemory() - runtime.freeMemory();
+        return used > runtime.maxMemory() * HEAP_USAGE_LIMIT;
+    }
+}
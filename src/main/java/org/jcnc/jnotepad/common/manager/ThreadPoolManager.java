@@ -64,6 +64,92 @@ public class ThreadPoolManager {
     private static final ThreadPoolExecutor THREAD_POOL = new ThreadPoolExecutor(
             CORE_POOL_SIZE, MAXIMUM_POOL_SIZE, KEEP_ALIVE_TIME, TIME_UNIT, BLOCKING_QUEUE, THREAD_FACTORY, HANDLER);
 
+    /**
+     * 文件读写线程数
+     */
+    private static final int FILE_POOL_SIZE = 2;
+    /**
+     * 文件读写线程计数
+     */
+    private static final AtomicInteger FILE_THREAD_COUNT = new AtomicInteger(1);
+    /**
+     * 文件读写线程池<br>
+     * 注：<br>
+     * 大文件索引等耗时的文件任务数量不可预知，使用无界队列排队执行，避免被通用线程池拒绝
+     */
+    private static final ThreadPoolExecutor FILE_THREAD_POOL = new ThreadPoolExecutor(
+            FILE_POOL_SIZE, FILE_POOL_SIZE, KEEP_ALIVE_TIME, TIME_UNIT, new LinkedBlockingQueue<>(), r -> {
+        Thread thread = new Thread(r);
+        thread.setName("JNotepad-File-Thread-" + FILE_THREAD_COUNT.getAndIncrement());
+        thread.setDaemon(true);
+        thread.setUncaughtExceptionHandler((t, e) -> logger.error("文件线程执行异常!", e));
+        return thread;
+    });
+
+    /**
+     * 语法高亮线程数，最多占用一半处理器
+     */
+    private static final int HIGHLIGHT_POOL_SIZE = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+    /**
+     * 语法高亮线程计数
+     */
+    private static final AtomicInteger HIGHLIGHT_THREAD_COUNT = new AtomicInteger(1);
+    /**
+     * 语法高亮线程池<br>
+     * 注：<br>
+     * 每个文本域同一时刻最多只有一个高亮任务，过期任务会被取消，多个线程使不同标签页的高亮互不阻塞
+     */
+    private static final ThreadPoolExecutor HIGHLIGHT_THREAD_POOL = new ThreadPoolExecutor(
+            HIGHLIGHT_POOL_SIZE, HIGHLIGHT_POOL_SIZE, KEEP_ALIVE_TIME, TIME_UNIT, new LinkedBlockingQueue<>(), r -> {
+        Thread thread = new Thread(r);
+        thread.setName("JNotepad-Highlight-Thread-" + HIGHLIGHT_THREAD_COUNT.getAndIncrement());
+        thread.setDaemon(true);
+        thread.setUncaughtExceptionHandler((t, e) -> logger.error("语法高亮线程执行异常!", e));
+        return thread;
+    });
+
+    /**
+     * 文件保存线程池<br>
+     * 注：<br>
+     * 单线程按提交顺序写入，同一文件的多次保存不会交错
+     */
+    private static final ExecutorService SAVE_THREAD_POOL = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r);
+        thread.setName("JNotepad-Save-Thread");
+        thread.setDaemon(true);
+        thread.setUncaughtExceptionHandler((t, e) -> logger.error("文件保存线程执行异常!", e));
+        return thread;
+    });
+
+    /**
+     * 缓存写入线程池<br>
+     * 注：<br>
+     * 单线程定时写入已修改的缓存组
+     */
+    private static final ScheduledExecutorService CACHE_FLUSH_THREAD_POOL = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r);
+        thread.setName("JNotepad-CacheFlush-Thread");
+        thread.setDaemon(true);
+        thread.setUncaughtExceptionHandler((t, e) -> logger.error("缓存写入线程执行异常!", e));
+        return thread;
+    });
+
+    /**
+     * 文件夹扫描线程数，最多占用一半处理器
+     */
+    private static final int DIRECTORY_SCAN_PARALLELISM = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors() / 2));
+    /**
+     * 文件夹扫描线程池<br>
+     * 注：<br>
+     * 每个文件夹作为一个分治任务，子文件夹的任务可被空闲线程窃取，深而不均匀的目录也能并行扫描
+     */
+    private static final ForkJoinPool DIRECTORY_SCAN_POOL = new ForkJoinPool(DIRECTORY_SCAN_PARALLELISM, pool -> {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("JNotepad-DirectoryScan-Thread-" + thread.getPoolIndex());
+        thread.setDaemon(true);
+        return thread;
+    }, (t, e) -> logger.error("文件夹扫描线程执行异常!", e), false);
+
     private ThreadPoolManager() {
     }
 
@@ -85,4 +171,49 @@ public class ThreadPoolManager {
     public static ExecutorService getThreadPool() {
         return THREAD_POOL;
     }
+
+    /**
+     * 获取文件读写线程池实例。
+     *
+     * @return 文件读写线程池实例
+     */
+    public static ExecutorService getFileThreadPool() {
+        return FILE_THREAD_POOL;
+    }
+
+    /**
+     * 获取语法高亮线程池实例。
+     *
+     * @return 语法高亮线程池实例
+     */
+    public static ExecutorService getHighlightThreadPool() {
+        return HIGHLIGHT_THREAD_POOL;
+    }
+
+    /**
+     * 获取文件保存线程池实例。
+     *
+     * @return 文件保存线程池实例
+     */
+    public static ExecutorService getSaveThreadPool() {
+        return SAVE_THREAD_POOL;
+    }
+
+    /**
+     * 获取缓存写入线程池实例。
+     *
+     * @return 缓存写入线程池实例
+     */
+    public static ScheduledExecutorService getCacheFlushThreadPool() {
+        return CACHE_FLUSH_THREAD_POOL;
+    }
+
+    /**
+     * 获取文件夹扫描线程池实例。
+     *
+     * @return 文件夹扫描线程池实例
+     */
+    public static ForkJoinPool getDirectoryScanPool() {
+        return DIRECTORY_SCAN_POOL;
+    }
 }
@@ -6,14 +6,13 @@ import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
 import org.fxmisc.richtext.CodeArea;
 import org.fxmisc.richtext.LineNumberFactory;
-import org.fxmisc.richtext.model.StyleSpans;
-import org.fxmisc.richtext.model.StyleSpansBuilder;
+import org.jcnc.jnotepad.common.manager.LanguageGrammarManager;
+import org.jcnc.jnotepad.component.module.highlight.IncrementalHighlighter;
+import org.jcnc.jnotepad.component.module.highlight.LanguageGrammar;
+import org.jcnc.jnotepad.model.document.DirtyRangeTracker;
+import org.jcnc.jnotepad.model.document.DocumentSnapshot;
 import org.jcnc.jnotepad.model.entity.DefaultContextMenu;
-import org.jcnc.jnotepad.model.entity.VisibleParagraphStyler;
-import org.reactfx.Subscription;
 
-import java.time.Duration;
-import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -25,47 +24,22 @@ import java.util.regex.Pattern;
  */
 public class TextCodeArea extends CodeArea {
 
-    private static final String[] KEYWORDS = new String[]{
-            "abstract", "assert", "boolean", "break", "byte",
-            "case", "catch", "char", "class", "const",
-            "continue", "default", "do", "double", "else",
-            "enum", "extends", "final", "finally", "float",
-            "for", "goto", "if", "implements", "import",
-            "instanceof", "int", "interface", "long", "native",
-            "new", "package", "private", "protected", "public",
-            "return", "short", "static", "strictfp", "super",
-            "switch", "synchronized", "this", "throw", "throws",
-            "transient", "try", "void", "volatile", "while"
-    };
-
     /**
-     * 定义用于匹配关键字、括号、分号、字符串和注释的正则表达式模式
+     * 上次保存后修改过的区间，用于保存时只改写这些区间
      */
-    private static final String KEYWORD_PATTERN = "\\b(" + String.join("|", KEYWORDS) + ")\\b";
-    private static final String PAREN_PATTERN = "[()]";
-    private static final String BRACE_PATTERN = "[{}]";
-    private static final String BRACKET_PATTERN = "[\\[\\]]";
-    private static final String SEMICOLON_PATTERN = ";";
-    private static final String STRING_PATTERN = "\"([^\"\\\\]|\\\\.)*\"";
-    private static final String COMMENT_PATTERN =
-            // 用于整体文本处理（文本块）
-            "//[^\n]*" + "|" + "/\\*(.|\\R)*?\\*/"
-                    // 用于可见段落处理（逐行）
-                    + "|" + "/\\*\\V*" + "|" + "^\\h*\\*(\\V*|/)";
-
-
+    private final DirtyRangeTracker dirtyRanges = new DirtyRangeTracker();
     /**
-     * 使用正则表达式将关键字、括号、分号、字符串和注释的模式组合成一个复合模式
+     * 语法高亮器
      */
-    private static final Pattern PATTERN = Pattern.compile(
-            "(?<KEYWORD>" + KEYWORD_PATTERN + ")"
-                    + "|(?<PAREN>" + PAREN_PATTERN + ")"
-                    + "|(?<BRACE>" + BRACE_PATTERN + ")"
-                    + "|(?<BRACKET>" + BRACKET_PATTERN + ")"
-                    + "|(?<SEMICOLON>" + SEMICOLON_PATTERN + ")"
-                    + "|(?<STRING>" + STRING_PATTERN + ")"
-                    + "|(?<COMMENT>" + COMMENT_PATTERN + ")"
-    );
+    private final IncrementalHighlighter highlighter;
+    /**
+     * 当前语言语法，为 null 时不高亮
+     */
+    private LanguageGrammar languageGrammar;
+    /**
+     * 是否正在分批加载文件内容
+     */
+    private boolean loading = false;
 
     /**
      * 构造函数
@@ -80,19 +54,12 @@ public class TextCodeArea extends CodeArea {
         this.setParagraphGraphicFactory(LineNumberFactory.get(this));
         this.setContextMenu(new DefaultContextMenu());
 
-        /*
-          重新计算所有文本的语法高亮，用户停止编辑区域后的500毫秒内
-          fixme 这个代码没有作用
-         */
-        Subscription cleanupWhenNoLongerNeedIt = this
-                .multiPlainChanges()
-                .successionEnds(Duration.ofMillis(500))
-                .subscribe(ignore -> this.setStyleSpans(0, computeHighlighting(this.getText())));
-
-        this.getVisibleParagraphs().addModificationObserver
-                (
-                        new VisibleParagraphStyler<>(this, this::computeHighlighting)
-                );
+        // 记录每次修改涉及的区间
+        this.plainTextChanges().subscribe(change ->
+                dirtyRanges.record(change.getPosition(), change.getRemovalEnd(), change.getInserted().length()));
+        // 增量语法高亮
+        this.highlighter = new IncrementalHighlighter(this, null);
+        setLanguageGrammar(LanguageGrammarManager.getInstance().getDefaultGrammar());
 
         // 自动缩进：在按下回车键时插入上一行的缩进
         final Pattern whiteSpace = Pattern.compile("^\\s+");
@@ -107,40 +74,87 @@ public class TextCodeArea extends CodeArea {
                 }
             }
         });
-        this.getStylesheets().add(Objects.requireNonNull(getClass().getResource("/css/java_code_styles.css")).toString());
     }
 
-
-    private StyleSpans<Collection<String>> computeHighlighting(String text) {
-        Matcher matcher = PATTERN.matcher(text);
-        int lastKwEnd = 0;
-        StyleSpansBuilder<Collection<String>> spansBuilder
-                = new StyleSpansBuilder<>();
-        while (matcher.find()) {
-            String styleClass = getStyleClass(matcher);
-            spansBuilder.add(Collections.emptyList(), matcher.start() - lastKwEnd);
-            spansBuilder.add(Collections.singleton(styleClass), matcher.end() - matcher.start());
-            lastKwEnd = matcher.end();
+    /**
+     * 设置语言语法
+     *
+     * @param languageGrammar 语言语法，为 null 时不进行语法高亮
+     */
+    public void setLanguageGrammar(LanguageGrammar languageGrammar) {
+        if (this.languageGrammar == languageGrammar) {
+            return;
+        }
+        if (this.languageGrammar != null && this.languageGrammar.getStylesheet() != null) {
+            this.getStylesheets().remove(this.languageGrammar.getStylesheet());
+        }
+        this.languageGrammar = languageGrammar;
+        if (languageGrammar != null && languageGrammar.getStylesheet() != null) {
+            this.getStylesheets().add(languageGrammar.getStylesheet());
+        }
+        // 加载期间内容尚不完整，加载完成后再高亮
+        if (!loading) {
+            highlighter.setLexer(languageGrammar == null ? null : languageGrammar.getLexer());
         }
-        spansBuilder.add(Collections.emptyList(), text.length() - lastKwEnd);
-        return spansBuilder.create();
     }
 
-    private static String getStyleClass(Matcher matcher) {
-        Map<String, String> patternToStyleClass = new HashMap<>(16);
-        patternToStyleClass.put("keyword", matcher.group("KEYWORD"));
-        patternToStyleClass.put("paren", matcher.group("PAREN"));
-        patternToStyleClass.put("brace", matcher.group("BRACE"));
-        patternToStyleClass.put("bracket", matcher.group("BRACKET"));
-        patternToStyleClass.put("semicolon", matcher.group("SEMICOLON"));
-        patternToStyleClass.put("string", matcher.group("STRING"));
-        patternToStyleClass.put("comment", matcher.group("COMMENT"));
-        for (Map.Entry<String, String> entry : patternToStyleClass.entrySet()) {
-            if (entry.getValue() != null) {
-                return entry.getKey();
-            }
-        }
-        // 永不发生
-        return null;
+    public LanguageGrammar getLanguageGrammar() {
+        return languageGrammar;
+    }
+
+    /**
+     * 开始分批加载文件内容
+     * <p>
+     * 加载期间文本域只读，也不进行语法高亮
+     */
+    public void beginLoad() {
+        loading = true;
+        this.setEditable(false);
+        highlighter.setLexer(null);
+    }
+
+    /**
+     * 结束分批加载，以已追加的内容作为已保存的状态，并清空撤销记录
+     */
+    public void finishLoad() {
+        loading = false;
+        dirtyRanges.reset(this.getLength());
+        this.getUndoManager().forgetHistory();
+        this.setEditable(true);
+        highlighter.setLexer(languageGrammar == null ? null : languageGrammar.getLexer());
+    }
+
+    /**
+     * 释放文本域内容，清空文本与撤销记录
+     * <p>
+     * 用于休眠标签页，之后可通过 {@link #beginLoad()} 重新加载
+     */
+    public void unloadContent() {
+        this.clear();
+        dirtyRanges.reset(0);
+        this.getUndoManager().forgetHistory();
+    }
+
+    public boolean isLoading() {
+        return loading;
+    }
+
+    /**
+     * 获取当前内容的不可变快照
+     * <p>
+     * 快照直接引用文本域当前的不可变文档，不复制文本，可交给后台线程读取
+     *
+     * @return 快照
+     */
+    public DocumentSnapshot snapshot() {
+        return new DocumentSnapshot(this.getContent().snapshot());
+    }
+
+    public DirtyRangeTracker getDirtyRanges() {
+        return dirtyRanges;
+    }
+
+    public IncrementalHighlighter getHighlighter() {
+        return highlighter;
     }
 }
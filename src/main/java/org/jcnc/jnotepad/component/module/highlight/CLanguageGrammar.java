@@ -0,0 +1,59 @@
+package org.jcnc.jnotepad.component.module.highlight;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * C 语法
+ *
+ * @author gewuyou
+ */
+public class CLanguageGrammar implements LanguageGrammar {
+    private static final String[] KEYWORDS = new String[]{
+            "auto", "break", "case", "char", "const",
+            "continue", "default", "do", "double", "else",
+            "enum", "extern", "float", "for", "goto",
+            "if", "inline", "int", "long", "register",
+            "restrict", "return", "short", "signed", "sizeof",
+            "static", "struct", "switch", "typedef", "union",
+            "unsigned", "void", "volatile", "while", "_Bool"
+    };
+    private static final LineLexer LEXER;
+
+    static {
+        Map<String, String> tokenPatterns = new LinkedHashMap<>();
+        // 预处理指令只能出现在行首
+        tokenPatterns.put("preprocessor", "^\\s*#\\s*\\w+");
+        tokenPatterns.put("keyword", "\\b(?:" + String.join("|", KEYWORDS) + ")\\b");
+        tokenPatterns.put("number", "\\b(?:0[xX][0-9a-fA-F]+|\\d+(?:\\.\\d*)?(?:[eE][+-]?\\d+)?)[uUlLfF]*\\b");
+        tokenPatterns.put("paren", "[()]");
+        tokenPatterns.put("brace", "[{}]");
+        tokenPatterns.put("bracket", "[\\[\\]]");
+        tokenPatterns.put("semicolon", ";");
+        tokenPatterns.put("string", "\"(?:[^\"\\\\]|\\\\.)*\"|'(?:[^'\\\\]|\\\\.)*'");
+        tokenPatterns.put("comment", "//.*");
+        LEXER = new RegexLineLexer(tokenPatterns, "/*", "*/");
+    }
+
+    @Override
+    public String getName() {
+        return "C";
+    }
+
+    @Override
+    public List<String> getExtensions() {
+        return List.of("c", "h");
+    }
+
+    @Override
+    public String getStylesheet() {
+        return Objects.requireNonNull(getClass().getResource("/css/c_code_styles.css")).toString();
+    }
+
+    @Override
+    public LineLexer getLexer() {
+        return LEXER;
+    }
+}
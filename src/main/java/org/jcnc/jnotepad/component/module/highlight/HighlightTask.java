@@ -0,0 +1,169 @@
+package org.jcnc.jnotepad.component.module.highlight;
+
+import org.fxmisc.richtext.model.StyleSpans;
+import org.fxmisc.richtext.model.StyleSpansBuilder;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+/**
+ * 语法高亮任务
+ *
+ * <p>基于文档快照从指定行开始逐行分析，并携带提交时的文档版本号，
+ * 只有版本号与当前文档一致的结果才会被应用。执行线程被中断时尽快放弃分析并返回 null。</p>
+ *
+ * @author gewuyou
+ */
+final class HighlightTask implements Callable<HighlightTask.Result> {
+    private static final char LINE_FEED = '\n';
+
+    private final long version;
+    private final LineLexer lexer;
+    private final CharSequence text;
+    private final int startOffset;
+    private final int firstLine;
+    private final int startState;
+    /**
+     * 从起始行开始的原有行首状态
+     */
+    private final int[] knownStates;
+    /**
+     * 待分析区间的结束行
+     */
+    private final int lastDirtyLine;
+    /**
+     * 单次分析的最大行数
+     */
+    private final int maxLines;
+    private Future<?> future;
+
+    HighlightTask(long version, LineLexer lexer, CharSequence text, int startOffset, int firstLine, int startState,
+                  int[] knownStates, int lastDirtyLine, int maxLines) {
+        this.version = version;
+        this.lexer = lexer;
+        this.text = text;
+        this.startOffset = startOffset;
+        this.firstLine = firstLine;
+        this.startState = startState;
+        this.knownStates = knownStates;
+        this.lastDirtyLine = lastDirtyLine;
+        this.maxLines = maxLines;
+    }
+
+    /**
+     * 逐行分析
+     *
+     * @return 分析结果，任务被取消时返回 null
+     */
+    @Override
+    public Result call() {
+        StyleSpansBuilder<Collection<String>> builder = new StyleSpansBuilder<>();
+        // 下标为相对起始行的行号，多记录一行以保存下一次分析的起始状态
+        int[] newStates = new int[maxLines + 2];
+        newStates[0] = startState;
+        int offset = startOffset;
+        int line = firstLine;
+        int state = startState;
+        boolean finished = false;
+        StringBuilder lineText = new StringBuilder();
+        while (true) {
+            if (Thread.currentThread().isInterrupted()) {
+                return null;
+            }
+            lineText.setLength(0);
+            int end = offset;
+            while (end < text.length() && text.charAt(end) != LINE_FEED) {
+                lineText.append(text.charAt(end));
+                end++;
+            }
+            state = lexer.lexLine(lineText.toString(), state, builder);
+            line++;
+            if (end >= text.length()) {
+                finished = true;
+                break;
+            }
+            builder.add(Collections.emptyList(), 1);
+            offset = end + 1;
+            int relative = line - firstLine;
+            newStates[relative] = state;
+            // 越过待分析区间后，行首状态与原有状态一致说明后续行的结果不会变化
+            if (line > lastDirtyLine && relative < knownStates.length && knownStates[relative] == state) {
+                finished = true;
+                break;
+            }
+            if (relative > maxLines) {
+                break;
+            }
+        }
+        return new Result(line - 1, builder.create(), newStates, finished);
+    }
+
+    /**
+     * 取消任务，正在执行时中断执行线程
+     */
+    void cancel() {
+        if (future != null) {
+            future.cancel(true);
+        }
+    }
+
+    void setFuture(Future<?> future) {
+        this.future = future;
+    }
+
+    long getVersion() {
+        return version;
+    }
+
+    int getFirstLine() {
+        return firstLine;
+    }
+
+    int getStartOffset() {
+        return startOffset;
+    }
+
+    /**
+     * 高亮任务的结果
+     */
+    static final class Result {
+        /**
+         * 本次分析的最后一行
+         */
+        private final int lastLine;
+        private final StyleSpans<Collection<String>> spans;
+        /**
+         * 新的行首状态，下标 0 对应起始行，最多记录到最后一行的下一行
+         */
+        private final int[] newStates;
+        /**
+         * 是否已收敛或到达文档末尾
+         */
+        private final boolean finished;
+
+        private Result(int lastLine, StyleSpans<Collection<String>> spans, int[] newStates, boolean finished) {
+            this.lastLine = lastLine;
+            this.spans = spans;
+            this.newStates = newStates;
+            this.finished = finished;
+        }
+
+        int getLastLine() {
+            return lastLine;
+        }
+
+        StyleSpans<Collection<String>> getSpans() {
+            return spans;
+        }
+
+        int[] getNewStates() {
+            return newStates;
+        }
+
+        boolean isFinished() {
+            return finished;
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package org.jcnc.jnotepad.component.module.highlight;
+
+import javafx.application.Platform;
+import org.fxmisc.richtext.model.PlainTextChange;
+import org.fxmisc.richtext.model.TwoDimensional;
+import org.jcnc.jnotepad.common.manager.ThreadPoolManager;
+import org.jcnc.jnotepad.component.module.TextCodeArea;
+import org.jcnc.jnotepad.util.LogUtil;
+import org.slf4j.Logger;
+
+import java.util.Arrays;
+
+/**
+ * 增量语法高亮器
+ *
+ * <p>记录每一行行首的词法状态，并维护一段待分析的行区间。文本修改后只把修改涉及的行标记为待分析，
+ * 后台线程基于文档快照从区间起点逐行分析，越过区间终点后一旦行尾状态与下一行原有的行首状态一致即停止，
+ * 分析结果在 JavaFX 线程中一次性应用。</p>
+ *
+ * <p>每个任务携带提交时的文档版本号，文本再次修改时正在进行的任务会被取消，
+ * 只有版本号与当前文档一致的结果才会被应用。</p>
+ *
+ * @author gewuyou
+ */
+public class IncrementalHighlighter {
+    private static final Logger logger = LogUtil.getLogger(IncrementalHighlighter.class);
+    /**
+     * 单次分析的最大行数，超出部分在后续任务中继续分析
+     */
+    private static final int MAX_LINES_PER_PASS = 5000;
+    /**
+     * 尚未分析的行首状态
+     */
+    private static final int UNKNOWN_STATE = -1;
+    private static final char LINE_FEED = '\n';
+
+    private final TextCodeArea area;
+    /**
+     * 词法分析器，为 null 时不进行高亮
+     */
+    private LineLexer lexer;
+    /**
+     * 每一行的行首词法状态
+     */
+    private int[] lineStartStates = {LineLexer.INITIAL_STATE};
+    private int lineCount = 1;
+    /**
+     * 待分析区间的起始行，没有待分析的行时为 -1
+     */
+    private int dirtyFrom = -1;
+    /**
+     * 待分析区间的结束行（包含）
+     */
+    private int dirtyTo = -1;
+    /**
+     * 文档版本号，每次文本修改或切换词法分析器时递增，用于判断分析结果是否过期
+     */
+    private long version;
+    /**
+     * 正在进行的分析任务
+     */
+    private HighlightTask currentTask;
+
+    public IncrementalHighlighter(TextCodeArea area, LineLexer lexer) {
+        this.area = area;
+        this.lexer = lexer;
+        area.plainTextChanges().subscribe(this::onTextChanged);
+    }
+
+    /**
+     * 根据文本修改更新行首状态表与待分析区间
+     *
+     * @param change 文本修改
+     */
+    private void onTextChanged(PlainTextChange change) {
+        int paragraph = area.offsetToPosition(change.getPosition(), TwoDimensional.Bias.Forward).getMajor();
+        int removedLines = countLines(change.getRemoved());
+        int insertedLines = countLines(change.getInserted());
+        removeStates(paragraph + 1, removedLines);
+        insertUnknownStates(paragraph + 1, insertedLines);
+        if (dirtyFrom < 0) {
+            dirtyFrom = paragraph;
+            dirtyTo = paragraph + insertedLines;
+        } else {
+            if (dirtyTo > paragraph) {
+                dirtyTo = Math.max(paragraph, dirtyTo + insertedLines - removedLines);
+            }
+            dirtyFrom = Math.min(dirtyFrom, paragraph);
+            dirtyTo = Math.max(dirtyTo, paragraph + insertedLines);
+        }
+        version++;
+        // 正在进行的分析基于旧版本文档，结果必然被丢弃，立即取消
+        cancelCurrentTask();
+        schedule();
+    }
+
+    /**
+     * 重新分析整个文档
+     */
+    public void rehighlight() {
+        Arrays.fill(lineStartStates, 1, lineCount, UNKNOWN_STATE);
+        dirtyFrom = 0;
+        dirtyTo = lineCount - 1;
+        version++;
+        cancelCurrentTask();
+        schedule();
+    }
+
+    /**
+     * 切换词法分析器并重新分析整个文档
+     *
+     * @param lexer 词法分析器，为 null 时清除高亮
+     */
+    public void setLexer(LineLexer lexer) {
+        this.lexer = lexer;
+        if (lexer == null) {
+            version++;
+            cancelCurrentTask();
+            area.clearStyle(0, area.getLength());
+            return;
+        }
+        rehighlight();
+    }
+
+    /**
+     * 在没有正在进行的任务时提交一次分析
+     */
+    private void schedule() {
+        if (currentTask != null || dirtyFrom < 0 || lexer == null) {
+            return;
+        }
+        int firstLine = Math.min(dirtyFrom, lineCount - 1);
+        int startState = lineStartStates[firstLine] == UNKNOWN_STATE ? LineLexer.INITIAL_STATE : lineStartStates[firstLine];
+        // 只复制本次分析可能比较到的行首状态
+        int[] knownStates = Arrays.copyOfRange(lineStartStates, firstLine, Math.min(lineCount, firstLine + MAX_LINES_PER_PASS + 2));
+        HighlightTask task = new HighlightTask(version, lexer, area.snapshot(),
+                area.getAbsolutePosition(firstLine, 0), firstLine, startState, knownStates, dirtyTo, MAX_LINES_PER_PASS);
+        currentTask = task;
+        task.setFuture(ThreadPoolManager.getHighlightThreadPool().submit(() -> {
+            HighlightTask.Result result;
+            try {
+                result = task.call();
+            } catch (RuntimeException e) {
+                logger.error("语法高亮分析失败", e);
+                Platform.runLater(() -> {
+                    if (currentTask == task) {
+                        currentTask = null;
+                    }
+                });
+                return;
+            }
+            // 被取消的任务不再回调
+            if (result != null) {
+                Platform.runLater(() -> apply(task, result));
+            }
+        }));
+    }
+
+    /**
+     * 取消正在进行的任务
+     */
+    private void cancelCurrentTask() {
+        if (currentTask != null) {
+            currentTask.cancel();
+            currentTask = null;
+        }
+    }
+
+    /**
+     * 在 JavaFX 线程中应用分析结果
+     *
+     * @param task   高亮任务
+     * @param result 分析结果
+     */
+    private void apply(HighlightTask task, HighlightTask.Result result) {
+        if (task != currentTask) {
+            return;
+        }
+        currentTask = null;
+        if (task.getVersion() == version) {
+            area.setStyleSpans(task.getStartOffset(), result.getSpans());
+            int copyLength = Math.min(result.getLastLine() + 1 - task.getFirstLine(), lineCount - task.getFirstLine() - 1);
+            if (copyLength > 0) {
+                System.arraycopy(result.getNewStates(), 1, lineStartStates, task.getFirstLine() + 1, copyLength);
+            }
+            if (result.isFinished() || result.getLastLine() + 1 >= lineCount) {
+                dirtyFrom = -1;
+                dirtyTo = -1;
+            } else {
+                dirtyFrom = result.getLastLine() + 1;
+            }
+        }
+        schedule();
+    }
+
+    private static int countLines(String text) {
+        int count = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == LINE_FEED) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void removeStates(int from, int count) {
+        if (count == 0) {
+            return;
+        }
+        System.arraycopy(lineStartStates, from + count, lineStartStates, from, lineCount - from - count);
+        lineCount -= count;
+    }
+
+    private void insertUnknownStates(int from, int count) {
+        if (count == 0) {
+            return;
+        }
+        if (lineCount + count > lineStartStates.length) {
+            lineStartStates = Arrays.copyOf(lineStartStates, Math.max(lineStartStates.length * 2, lineCount + count));
+        }
+        System.arraycopy(lineStartStates, from, lineStartStates, from + count, lineCount - from);
+        Arrays.fill(lineStartStates, from, from + count, UNKNOWN_STATE);
+        lineCount += count;
+    }
+}
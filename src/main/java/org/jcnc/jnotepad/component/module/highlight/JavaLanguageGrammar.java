@@ -0,0 +1,60 @@
+package org.jcnc.jnotepad.component.module.highlight;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Java 语法
+ *
+ * @author gewuyou
+ */
+public class JavaLanguageGrammar implements LanguageGrammar {
+    private static final String[] KEYWORDS = new String[]{
+            "abstract", "assert", "boolean", "break", "byte",
+            "case", "catch", "char", "class", "const",
+            "continue", "default", "do", "double", "else",
+            "enum", "extends", "final", "finally", "float",
+            "for", "goto", "if", "implements", "import",
+            "instanceof", "int", "interface", "long", "native",
+            "new", "package", "private", "protected", "public",
+            "return", "short", "static", "strictfp", "super",
+            "switch", "synchronized", "this", "throw", "throws",
+            "transient", "try", "void", "volatile", "while"
+    };
+    private static final LineLexer LEXER;
+
+    static {
+        // 定义用于匹配关键字、括号、分号、字符串和注释的正则表达式模式
+        Map<String, String> tokenPatterns = new LinkedHashMap<>();
+        tokenPatterns.put("keyword", "\\b(?:" + String.join("|", KEYWORDS) + ")\\b");
+        tokenPatterns.put("paren", "[()]");
+        tokenPatterns.put("brace", "[{}]");
+        tokenPatterns.put("bracket", "[\\[\\]]");
+        tokenPatterns.put("semicolon", ";");
+        tokenPatterns.put("string", "\"(?:[^\"\\\\]|\\\\.)*\"");
+        tokenPatterns.put("comment", "//.*");
+        LEXER = new RegexLineLexer(tokenPatterns, "/*", "*/");
+    }
+
+    @Override
+    public String getName() {
+        return "Java";
+    }
+
+    @Override
+    public List<String> getExtensions() {
+        return List.of("java");
+    }
+
+    @Override
+    public String getStylesheet() {
+        return Objects.requireNonNull(getClass().getResource("/css/java_code_styles.css")).toString();
+    }
+
+    @Override
+    public LineLexer getLexer() {
+        return LEXER;
+    }
+}
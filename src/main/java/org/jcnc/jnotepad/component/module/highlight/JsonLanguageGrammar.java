@@ -0,0 +1,47 @@
+package org.jcnc.jnotepad.component.module.highlight;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * JSON 语法
+ *
+ * @author gewuyou
+ */
+public class JsonLanguageGrammar implements LanguageGrammar {
+    private static final LineLexer LEXER;
+
+    static {
+        Map<String, String> tokenPatterns = new LinkedHashMap<>();
+        // 后面紧跟冒号的字符串为键
+        tokenPatterns.put("key", "\"(?:[^\"\\\\]|\\\\.)*\"(?=\\s*:)");
+        tokenPatterns.put("string", "\"(?:[^\"\\\\]|\\\\.)*\"");
+        tokenPatterns.put("number", "-?\\b\\d+(?:\\.\\d+)?(?:[eE][+-]?\\d+)?\\b");
+        tokenPatterns.put("keyword", "\\b(?:true|false|null)\\b");
+        tokenPatterns.put("brace", "[{}]");
+        tokenPatterns.put("bracket", "[\\[\\]]");
+        LEXER = new RegexLineLexer(tokenPatterns);
+    }
+
+    @Override
+    public String getName() {
+        return "JSON";
+    }
+
+    @Override
+    public List<String> getExtensions() {
+        return List.of("json");
+    }
+
+    @Override
+    public String getStylesheet() {
+        return Objects.requireNonNull(getClass().getResource("/css/json_code_styles.css")).toString();
+    }
+
+    @Override
+    public LineLexer getLexer() {
+        return LEXER;
+    }
+}
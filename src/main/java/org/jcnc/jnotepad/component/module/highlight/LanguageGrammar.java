@@ -0,0 +1,42 @@
+package org.jcnc.jnotepad.component.module.highlight;
+
+import java.util.List;
+
+/**
+ * 语言语法
+ *
+ * <p>描述一种语言的语法高亮方式，根据文件扩展名选择。内置语法与插件提供的语法均通过
+ * {@link org.jcnc.jnotepad.common.manager.LanguageGrammarManager} 注册。</p>
+ *
+ * @author gewuyou
+ */
+public interface LanguageGrammar {
+    /**
+     * 获取语言名称
+     *
+     * @return 语言名称
+     */
+    String getName();
+
+    /**
+     * 获取该语言的文件扩展名
+     *
+     * @return 不含点号的小写扩展名
+     */
+    List<String> getExtensions();
+
+    /**
+     * 获取该语言的样式表
+     *
+     * @return 样式表地址，没有样式表时返回 null
+     */
+    String getStylesheet();
+
+    /**
+     * 获取词法分析器
+     *
+     * @return 词法分析器，会在所有标签页与高亮线程之间共享，实现必须线程安全
+     * @apiNote 模式应只编译一次，不要在每次调用时创建新的词法分析器
+     */
+    LineLexer getLexer();
+}
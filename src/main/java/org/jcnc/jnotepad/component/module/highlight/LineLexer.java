@@ -0,0 +1,30 @@
+package org.jcnc.jnotepad.component.module.highlight;
+
+import org.fxmisc.richtext.model.StyleSpansBuilder;
+
+import java.util.Collection;
+
+/**
+ * 逐行词法分析器
+ *
+ * <p>以整数表示行首的词法状态（例如是否处于块注释中），分析一行后返回行尾状态，
+ * 使得修改只需从修改行开始重新分析，直到行尾状态与原有状态一致为止。</p>
+ *
+ * @author gewuyou
+ */
+public interface LineLexer {
+    /**
+     * 文档开头的词法状态
+     */
+    int INITIAL_STATE = 0;
+
+    /**
+     * 分析一行文本并写入样式区间
+     *
+     * @param line       行文本，不含换行符
+     * @param startState 行首的词法状态
+     * @param builder    样式区间构造器，写入的区间总长度必须等于行长度，且至少写入一个区间
+     * @return 行尾的词法状态
+     */
+    int lexLine(String line, int startState, StyleSpansBuilder<Collection<String>> builder);
+}
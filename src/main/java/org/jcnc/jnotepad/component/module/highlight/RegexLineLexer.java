@@ -0,0 +1,141 @@
+package org.jcnc.jnotepad.component.module.highlight;
+
+import org.fxmisc.richtext.model.StyleSpansBuilder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 基于正则表达式的逐行词法分析器
+ *
+ * <p>各类词法单元的模式在构造时组合编译为一个复合模式，每类单元对应一个捕获组，
+ * 按捕获组序号直接取得共享的样式集合。可选的块注释会跨行记录在行首状态中。</p>
+ *
+ * <p>实例不可变，可以在多个文本域与线程之间共享。</p>
+ *
+ * @author gewuyou
+ */
+public class RegexLineLexer implements LineLexer {
+    /**
+     * 块注释内部
+     */
+    private static final int IN_BLOCK_COMMENT = 1;
+    private static final String COMMENT_STYLE = "comment";
+    private static final Collection<String> NO_STYLE = Collections.emptyList();
+
+    private final Pattern pattern;
+    /**
+     * 捕获组对应的样式，下标为捕获组序号
+     */
+    private final List<Collection<String>> groupStyles = new ArrayList<>();
+    /**
+     * 块注释对应的捕获组序号，没有块注释时为 -1
+     */
+    private final int blockCommentGroup;
+    private final String blockCommentStart;
+    private final String blockCommentEnd;
+
+    /**
+     * 构造不支持块注释的词法分析器
+     *
+     * @param tokenPatterns 样式类名到模式的映射，按迭代顺序决定同一位置的匹配优先级
+     */
+    public RegexLineLexer(Map<String, String> tokenPatterns) {
+        this(tokenPatterns, null, null);
+    }
+
+    /**
+     * 构造词法分析器
+     *
+     * @param tokenPatterns     样式类名到模式的映射，按迭代顺序决定同一位置的匹配优先级，模式中只能使用非捕获组
+     * @param blockCommentStart 块注释开始标记，可为 null
+     * @param blockCommentEnd   块注释结束标记，可为 null
+     */
+    public RegexLineLexer(Map<String, String> tokenPatterns, String blockCommentStart, String blockCommentEnd) {
+        this.blockCommentStart = blockCommentStart;
+        this.blockCommentEnd = blockCommentEnd;
+        StringBuilder regex = new StringBuilder();
+        groupStyles.add(NO_STYLE);
+        for (Map.Entry<String, String> entry : tokenPatterns.entrySet()) {
+            appendGroup(regex, entry.getValue());
+            groupStyles.add(Collections.singleton(entry.getKey()));
+        }
+        if (blockCommentStart != null && blockCommentEnd != null) {
+            String start = Pattern.quote(blockCommentStart);
+            // 单行内闭合的块注释，以及延续到下一行的块注释开头
+            appendGroup(regex, start + ".*?" + Pattern.quote(blockCommentEnd) + "|" + start + ".*");
+            groupStyles.add(Collections.singleton(COMMENT_STYLE));
+            blockCommentGroup = groupStyles.size() - 1;
+        } else {
+            blockCommentGroup = -1;
+        }
+        pattern = Pattern.compile(regex.toString());
+        if (pattern.matcher("").groupCount() != groupStyles.size() - 1) {
+            throw new IllegalArgumentException("词法单元模式中只能使用非捕获组: " + tokenPatterns);
+        }
+    }
+
+    private static void appendGroup(StringBuilder regex, String tokenPattern) {
+        if (!regex.isEmpty()) {
+            regex.append('|');
+        }
+        regex.append('(').append(tokenPattern).append(')');
+    }
+
+    @Override
+    public int lexLine(String line, int startState, StyleSpansBuilder<Collection<String>> builder) {
+        int position = 0;
+        if (startState == IN_BLOCK_COMMENT && blockCommentGroup > 0) {
+            int end = line.indexOf(blockCommentEnd);
+            if (end < 0) {
+                builder.add(groupStyles.get(blockCommentGroup), line.length());
+                return IN_BLOCK_COMMENT;
+            }
+            position = end + blockCommentEnd.length();
+            builder.add(groupStyles.get(blockCommentGroup), position);
+        }
+        // 透明边界使块注释结束后的 \b 仍能看到前一个字符，非锚定边界使 ^ 只匹配真正的行首
+        Matcher matcher = pattern.matcher(line).region(position, line.length())
+                .useTransparentBounds(true)
+                .useAnchoringBounds(false);
+        int lastKwEnd = position;
+        int endState = INITIAL_STATE;
+        while (matcher.find()) {
+            int group = getGroup(matcher);
+            builder.add(NO_STYLE, matcher.start() - lastKwEnd);
+            builder.add(groupStyles.get(group), matcher.end() - matcher.start());
+            lastKwEnd = matcher.end();
+            if (group == blockCommentGroup && isUnterminatedBlockComment(line, matcher.start(), matcher.end())) {
+                endState = IN_BLOCK_COMMENT;
+            }
+        }
+        builder.add(NO_STYLE, line.length() - lastKwEnd);
+        return endState;
+    }
+
+    private boolean isUnterminatedBlockComment(String line, int start, int end) {
+        return end - start < blockCommentStart.length() + blockCommentEnd.length()
+                || !line.startsWith(blockCommentEnd, end - blockCommentEnd.length());
+    }
+
+    /**
+     * 获取匹配到的捕获组序号
+     *
+     * @param matcher 匹配器
+     * @return 捕获组序号
+     */
+    private int getGroup(Matcher matcher) {
+        int lastGroup = groupStyles.size() - 1;
+        for (int group = 1; group < lastGroup; group++) {
+            if (matcher.start(group) >= 0) {
+                return group;
+            }
+        }
+        return lastGroup;
+    }
+}
@@ -1,27 +1,41 @@
 package org.jcnc.jnotepad.controller.cache;
 
-import com.fasterxml.jackson.core.type.TypeReference;
+import org.jcnc.jnotepad.api.core.manager.AbstractCacheManager;
 import org.jcnc.jnotepad.common.manager.ApplicationCacheManager;
+import org.jcnc.jnotepad.controller.cache.impl.JsonDirectoryCacheStore;
+import org.jcnc.jnotepad.controller.cache.impl.LogCacheStore;
+import org.jcnc.jnotepad.controller.cache.interfaces.CacheStore;
 import org.jcnc.jnotepad.controller.config.AppConfigController;
+import org.jcnc.jnotepad.controller.config.UserConfigController;
 import org.jcnc.jnotepad.model.entity.Cache;
-import org.jcnc.jnotepad.util.JsonUtil;
+import org.jcnc.jnotepad.model.enums.CacheStoreType;
 import org.jcnc.jnotepad.util.LogUtil;
 import org.slf4j.Logger;
 
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Objects;
-import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
 
 /**
  * 缓存控制器
  *
+ * <p>缓存修改后由后台线程定时写入已修改的缓存组，关闭程序时只需写入剩余的修改，程序异常退出时最多丢失一个间隔内的修改。</p>
+ *
+ * <p>缓存通过 {@link CacheStore} 读写，默认使用单个日志文件的存储，也可配置为每组一个 JSON 文件的存储。
+ * 配置的存储没有数据而另一种存储有数据时，加载时一次性迁移到配置的存储。</p>
+ *
+ * <p>加载缓存时只列出缓存组，缓存组在第一次读取或写入时才从存储中读取，标签页、文件夹等启动时必定用到的缓存组在后台预先读取。</p>
+ *
+ * <p>每个插件的缓存保存在插件缓存目录下单独的日志文件中，在插件第一次使用缓存时才打开，并按单独的间隔写入，
+ * 插件的缓存不会影响程序启动时加载缓存。</p>
+ *
  * @author gewuyou
  */
 public class CacheController {
@@ -31,10 +45,45 @@ public class CacheController {
 
     private static final CacheController INSTANCE = new CacheController();
 
+    /**
+     * 定时写入已修改缓存组的间隔（秒）
+     */
+    private static final long FLUSH_INTERVAL = 10;
+    /**
+     * 定时写入插件已修改缓存组的间隔（秒）
+     */
+    private static final long PLUGIN_FLUSH_INTERVAL = 30;
+    /**
+     * 日志存储的文件名，位于缓存根目录下
+     */
+    private static final String LOG_FILE_NAME = "caches.log";
+    /**
+     * 插件缓存文件的后缀
+     */
+    private static final String PLUGIN_LOG_SUFFIX = ".log";
+    /**
+     * 启动时必定用到的缓存组，在后台预先加载
+     */
+    private static final String[] STARTUP_GROUPS = {"tabs", "folder", "directory"};
+
     private String cacheDir;
+    /**
+     * 插件缓存目录
+     */
+    private String pluginCacheDir;
+    /**
+     * 程序缓存的写入器，加载缓存时创建
+     */
+    private CacheFlusher cacheFlusher;
+    /**
+     * 已打开的插件缓存的写入器
+     */
+    private final List<CacheFlusher> pluginCacheFlushers = new CopyOnWriteArrayList<>();
 
     private CacheController() {
-        cacheDir = Paths.get(AppConfigController.getInstance().getConfig().getRootPath(), ".jnotepad", "caches").toString();
+        String rootPath = AppConfigController.getInstance().getConfig().getRootPath();
+        cacheDir = Paths.get(rootPath, ".jnotepad", "caches").toString();
+        pluginCacheDir = Paths.get(rootPath, ".jnotepad", "plugin-caches").toString();
     }
 
     public static CacheController getInstance() {
@@ -42,153 +91,109 @@ public class CacheController {
     }
 
     public void loadCaches() {
-        // 如果本地没有缓存的话，就创建缓存
-        if (createCachesIfNotExists()) {
-            return;
-        }
         // 检查并获取缓存根目录
         File cacheFileDir = createCacheRootIfNotExist();
-        // 获取缓存命名空间
-        String[] namespaces = cacheFileDir.list();
-        // 如果缓存根目录下为空，则创建缓存
-        if (Objects.requireNonNull(namespaces).length == 0) {
-            APPLICATION_CACHE_MANAGER.setCaches(new HashMap<>(16));
-            return;
-        }
-        Map<String, Cache> caches = new HashMap<>(16);
-        for (String namespace : namespaces) {
-            // 获取命名空间对应的文件夹
-            File namespaceDir = new File(cacheFileDir, namespace);
-            // 获取缓存组对应的文件名称列表
-            String[] groupNames = namespaceDir.list();
-            // 如果命名空间文件夹下没有文件则删除该文件夹
-            if (cleanEmptyFileOrFolder(namespaceDir)) {
-                continue;
-            }
-            for (String groupName : Objects.requireNonNull(groupNames)) {
-                // 获取缓存组对应的文件
-                File groupFile = new File(namespaceDir, groupName);
-                // 清理空文件
-                if (cleanEmptyFileOrFolder(groupFile)) {
-                    continue;
-                }
-                // 获取缓存
-                try {
-                    String cacheJson = Files.readString(groupFile.toPath());
-                    // 获取缓存集合
-                    Map<String, Cache> cacheMap = JsonUtil.fromJsonString(cacheJson, new TypeReference<>() {
-                    });
-                    // 设置缓存
-                    cacheMap.forEach((k, v) -> setUpCache(namespace, groupName, k, v, caches));
-                } catch (IOException e) {
-                    logger.error("读取缓存文件出错!", e);
-                }
-            }
-            // 设置缓存
-            APPLICATION_CACHE_MANAGER.setCaches(caches);
+        CacheStore logStore = new LogCacheStore(cacheFileDir.toPath().resolve(LOG_FILE_NAME));
+        CacheStore jsonStore = new JsonDirectoryCacheStore(cacheFileDir);
+        boolean useLog = UserConfigController.getInstance().getCacheStoreType() == CacheStoreType.LOG;
+        CacheStore cacheStore = useLog ? logStore : jsonStore;
+        CacheStore otherStore = useLog ? jsonStore : logStore;
+        // 配置的存储没有数据时迁移另一种存储中的缓存
+        if (!cacheStore.exists() && otherStore.exists()) {
+            migrate(otherStore, cacheStore);
         }
+        // 设置缓存，只登记缓存组，缓存组在第一次使用时才读取
+        cacheFlusher = new CacheFlusher(APPLICATION_CACHE_MANAGER, cacheStore);
+        cacheFlusher.open();
+        APPLICATION_CACHE_MANAGER.prefetchGroups(APPLICATION_CACHE_MANAGER.getGlobalNamespace(), STARTUP_GROUPS);
+    }
 
+    /**
+     * 打开插件的缓存并开始定时写入
+     *
+     * @param pluginId     插件id
+     * @param cacheManager 插件的缓存管理类
+     */
+    public void openPluginCache(String pluginId, AbstractCacheManager cacheManager) {
+        CacheFlusher flusher = new CacheFlusher(cacheManager,
+                new LogCacheStore(Paths.get(pluginCacheDir, getPluginCacheFileName(pluginId))));
+        flusher.open();
+        flusher.start(PLUGIN_FLUSH_INTERVAL, TimeUnit.SECONDS);
+        pluginCacheFlushers.add(flusher);
     }
 
     /**
-     * 设置缓存
+     * 获取插件缓存文件名
+     *
+     * <p>插件id可能包含文件名中不允许的字符，替换为下划线后不同的id可能得到相同的名称，因此再附加原始id的 CRC32。</p>
      *
-     * @param namespace 命名空间
-     * @param groupName 缓存组
-     * @param k         缓存名称
-     * @param v         缓存类
-     * @param caches    缓存集合
+     * @param pluginId 插件id
+     * @return 文件名
      */
-    private void setUpCache(String namespace, String groupName, String k, Cache v, Map<String, Cache> caches) {
-        // 判断缓存是否过期,没有过期才加载进内存
-        if (v.getLastReadOrWriteTime() + v.getExpirationTime() > System.currentTimeMillis() || v.getExpirationTime() < 0) {
-            v.setNamespace(namespace);
-            v.setGroup(groupName);
-            v.setName(k);
-            caches.put(v.getCacheKey(), v);
-        }
+    static String getPluginCacheFileName(String pluginId) {
+        CRC32 crc = new CRC32();
+        crc.update(pluginId.getBytes(StandardCharsets.UTF_8));
+        return String.format("%s-%08x%s", pluginId.replaceAll("[^A-Za-z0-9._-]", "_"), crc.getValue(), PLUGIN_LOG_SUFFIX);
     }
 
     /**
-     * 清理空文件或空文件夹并返回结果
+     * 将缓存从一种存储迁移到另一种存储，迁移完成后删除原存储的数据
      *
-     * @param fileOrFolder 文件或文件夹
-     * @return 是否清理
+     * @param source 原存储
+     * @param target 目标存储
      */
-    private boolean cleanEmptyFileOrFolder(File fileOrFolder) {
+    private void migrate(CacheStore source, CacheStore target) {
         try {
-            if (fileOrFolder.isFile() && fileOrFolder.length() == 0) {
-                Files.delete(fileOrFolder.toPath());
-                logger.info("删除缓存文件:{}", fileOrFolder);
-                return true;
+            Map<Map.Entry<String, String>, Map<String, Cache>> groups = new HashMap<>(16);
+            for (Cache cache : source.load()) {
+                groups.computeIfAbsent(Map.entry(cache.getNamespace(), cache.getGroup()), k -> new HashMap<>(16))
+                        .put(cache.getName(), cache);
             }
-
-            if (fileOrFolder.isDirectory() && Objects.requireNonNull(fileOrFolder.list()).length == 0) {
-                Files.delete(fileOrFolder.toPath());
-                logger.info("删除缓存文件夹:{}", fileOrFolder);
-                return true;
+            for (Map.Entry<Map.Entry<String, String>, Map<String, Cache>> group : groups.entrySet()) {
+                target.writeGroup(group.getKey().getKey(), group.getKey().getValue(), group.getValue());
+            }
+            target.flush();
+            source.delete();
+            logger.info("迁移缓存: {} 个缓存组", groups.size());
+        } catch (IOException | RuntimeException e) {
+            // 目标存储中已迁移的部分不完整，删除后下次启动重新迁移
+            logger.error("迁移缓存失败!", e);
+            try {
+                target.delete();
+            } catch (IOException ex) {
+                logger.error("清理迁移失败的缓存出错!", ex);
             }
-        } catch (IOException e) {
-            logger.error("清理缓存文件或文件夹出错!", e);
         }
-        return false;
     }
 
     /**
-     * 写缓存(writeCache)
+     * 开始定时写入已修改的缓存组，在加载缓存后调用
      */
-    public void writeCaches() {
-        writeCaches(APPLICATION_CACHE_MANAGER.getCaches());
+    public void startWriteBehind() {
+        if (cacheFlusher != null) {
+            cacheFlusher.start(FLUSH_INTERVAL, TimeUnit.SECONDS);
+        }
     }
 
     /**
-     * 写缓存
+     * 停止定时写入并写入剩余的修改，在关闭程序前调用
+     */
+    public void flushAndStop() {
+        pluginCacheFlushers.forEach(CacheFlusher::flushAndStop);
+        pluginCacheFlushers.clear();
+        if (cacheFlusher != null) {
+            cacheFlusher.flushAndStop();
+        }
+    }
+
+    /**
+     * 写缓存(writeCache)
      *
-     * @param caches 缓存集合
+     * <p>只写入已修改的缓存组，写入失败的缓存组重新标记为已修改，下次写入时重试。</p>
      */
-    public void writeCaches(Map<String, Cache> caches) {
-        // 检查并获取缓存根目录
-        File cacheFileDir = createCacheRootIfNotExist();
-        Map<File, Map<String, Cache>> fileMap = new HashMap<>(16);
-        // 生成缓存
-        caches.forEach((key, value) -> {
-            // 判断当前命名空间对应目录是否创建
-            File namespaceDir = new File(cacheFileDir, value.getNamespace());
-            if (!namespaceDir.exists()) {
-                namespaceDir.mkdirs();
-            }
-            // 判断当前组文件是否创建
-            File groupFile = new File(namespaceDir, value.getGroup());
-            if (!groupFile.exists()) {
-                try {
-                    boolean flag = groupFile.createNewFile();
-                    if (!flag) {
-                        logger.error("创建缓存文件失败:{}", groupFile);
-                    }
-                } catch (IOException e) {
-                    logger.error("创建缓存文件失败!", e);
-                }
-            }
-            fileMap.computeIfAbsent(groupFile, k -> new HashMap<>(16));
-            // 设置需要写入的数据
-            fileMap.get(groupFile).put(value.getName(), value);
-        });
-        Set<File> fileSet = fileMap.keySet();
-        // 清空原来的缓存
-        fileSet.forEach(file -> {
-            try (FileOutputStream fileOutputStream = new FileOutputStream(file)) {
-                fileOutputStream.write(new byte[0]);
-            } catch (IOException e) {
-                logger.error("清空缓存文件失败!", e);
-            }
-        });
-        // 写入缓存
-        for (Map.Entry<File, Map<String, Cache>> entry : fileMap.entrySet()) {
-            try (FileWriter writer = new FileWriter(entry.getKey(), true)) {
-                writer.write(JsonUtil.toJsonString(entry.getValue()));
-            } catch (IOException e) {
-                logger.error("写入缓存文件失败!", e);
-            }
+    public void writeCaches() {
+        if (cacheFlusher != null) {
+            cacheFlusher.writeCaches();
         }
     }
 
@@ -205,20 +210,6 @@ public class CacheController {
         return cacheFileDir;
     }
 
-    /**
-     * 如果本地没有缓存则创建缓存
-     *
-     * @return 是否创建成功
-     */
-    private boolean createCachesIfNotExists() {
-        File cacheFileDir = createCacheRootIfNotExist();
-        if (Objects.requireNonNull(cacheFileDir.list()).length == 0) {
-            APPLICATION_CACHE_MANAGER.setCaches(new HashMap<>(16));
-            return true;
-        }
-        return false;
-    }
-
     public String getCacheDir() {
         return cacheDir;
     }
@@ -0,0 +1,142 @@
+package org.jcnc.jnotepad.controller.cache;
+
+import org.jcnc.jnotepad.api.core.manager.AbstractCacheManager;
+import org.jcnc.jnotepad.common.manager.ThreadPoolManager;
+import org.jcnc.jnotepad.controller.cache.interfaces.CacheStore;
+import org.jcnc.jnotepad.model.entity.Cache;
+import org.jcnc.jnotepad.util.LogUtil;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 缓存写入器
+ *
+ * <p>将一个缓存管理类与一个缓存存储绑定，打开时登记存储中的缓存组，之后由后台线程按各自的间隔定时写入已修改的缓存组。
+ * 程序与每个插件各有一个写入器，互不影响。</p>
+ *
+ * @author gewuyou
+ */
+public class CacheFlusher {
+    private static final Logger logger = LogUtil.getLogger(CacheFlusher.class);
+    private final AbstractCacheManager cacheManager;
+    private final CacheStore cacheStore;
+    /**
+     * 定时写入任务
+     */
+    private ScheduledFuture<?> flushTask;
+
+    public CacheFlusher(AbstractCacheManager cacheManager, CacheStore cacheStore) {
+        this.cacheManager = cacheManager;
+        this.cacheStore = cacheStore;
+    }
+
+    /**
+     * 登记存储中已有的缓存组，缓存组在第一次使用时才读取
+     */
+    public void open() {
+        cacheManager.setCaches(new HashMap<>(16));
+        try {
+            cacheManager.setUnloadedGroups(cacheStore.listGroups(), this::loadGroup);
+        } catch (IOException e) {
+            logger.error("读取缓存文件出错!", e);
+        }
+    }
+
+    /**
+     * 开始定时写入已修改的缓存组
+     *
+     * @param interval 写入间隔
+     * @param unit     时间单位
+     */
+    public synchronized void start(long interval, TimeUnit unit) {
+        if (flushTask != null) {
+            return;
+        }
+        flushTask = ThreadPoolManager.getCacheFlushThreadPool().scheduleWithFixedDelay(() -> {
+            writeCaches();
+            compactCaches();
+        }, 0, interval, unit);
+    }
+
+    /**
+     * 停止定时写入并写入剩余的修改，之后关闭存储
+     */
+    public void flushAndStop() {
+        synchronized (this) {
+            if (flushTask != null) {
+                flushTask.cancel(false);
+                flushTask = null;
+            }
+        }
+        writeCaches();
+        cacheStore.close();
+    }
+
+    /**
+     * 写入已修改的缓存组，写入失败的缓存组重新标记为已修改，下次写入时重试
+     */
+    public synchronized void writeCaches() {
+        Map<String, Cache> caches = cacheManager.getCaches();
+        if (caches == null) {
+            return;
+        }
+        List<Map.Entry<String, String>> dirtyGroups = cacheManager.takeDirtyGroups();
+        if (dirtyGroups.isEmpty()) {
+            return;
+        }
+        // 按组收集需要写入的缓存，组内已没有缓存时删除该组
+        Map<Map.Entry<String, String>, Map<String, Cache>> groupMap = new HashMap<>(16);
+        dirtyGroups.forEach(group -> groupMap.put(group, new HashMap<>(16)));
+        caches.values().forEach(cache -> {
+            Map<String, Cache> groupCaches = groupMap.get(Map.entry(cache.getNamespace(), cache.getGroup()));
+            if (groupCaches != null) {
+                groupCaches.put(cache.getName(), cache);
+            }
+        });
+        for (Map.Entry<Map.Entry<String, String>, Map<String, Cache>> entry : groupMap.entrySet()) {
+            String namespace = entry.getKey().getKey();
+            String group = entry.getKey().getValue();
+            try {
+                cacheStore.writeGroup(namespace, group, entry.getValue());
+            } catch (IOException | RuntimeException e) {
+                logger.error("写入缓存文件失败:{}/{}", namespace, group, e);
+                cacheManager.markDirty(namespace, group);
+            }
+        }
+        try {
+            cacheStore.flush();
+        } catch (IOException e) {
+            logger.error("刷新缓存文件失败!", e);
+        }
+    }
+
+    /**
+     * 整理缓存存储占用的空间，在缓存写入线程中调用
+     */
+    private synchronized void compactCaches() {
+        cacheStore.compactIfNeeded();
+    }
+
+    /**
+     * 读取一个缓存组，读取失败时返回空集合
+     *
+     * @param namespace 命名空间
+     * @param group     组
+     * @return 缓存组内的缓存
+     */
+    private List<Cache> loadGroup(String namespace, String group) {
+        try {
+            return cacheStore.loadGroup(namespace, group);
+        } catch (IOException e) {
+            logger.error("读取缓存组出错:{}/{}", namespace, group, e);
+            return new ArrayList<>();
+        }
+    }
+}
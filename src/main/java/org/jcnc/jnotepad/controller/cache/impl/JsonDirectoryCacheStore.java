@@ -0,0 +1,194 @@
+package org.jcnc.jnotepad.controller.cache.impl;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.jcnc.jnotepad.controller.cache.interfaces.CacheStore;
+import org.jcnc.jnotepad.controller.exception.AppException;
+import org.jcnc.jnotepad.model.entity.Cache;
+import org.jcnc.jnotepad.util.JsonUtil;
+import org.jcnc.jnotepad.util.LogUtil;
+import org.slf4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * JSON 文件夹缓存存储
+ *
+ * <p>每个命名空间一个文件夹，每个缓存组一个 JSON 文件。写入缓存组时先写入临时文件再替换原文件，写入中途退出时原文件不受影响。</p>
+ *
+ * @author gewuyou
+ */
+public class JsonDirectoryCacheStore implements CacheStore {
+    private static final Logger logger = LogUtil.getLogger(JsonDirectoryCacheStore.class);
+    /**
+     * 写入缓存组时使用的临时文件后缀，读取时跳过并清理残留的临时文件
+     */
+    private static final String TEMP_SUFFIX = ".tmp";
+    /**
+     * 不缩进的写入器，缓存文件不需要人工阅读
+     */
+    private static final ObjectWriter COMPACT_WRITER = JsonUtil.OBJECT_MAPPER.writer().without(SerializationFeature.INDENT_OUTPUT);
+    private final File cacheFileDir;
+
+    public JsonDirectoryCacheStore(File cacheFileDir) {
+        this.cacheFileDir = cacheFileDir;
+    }
+
+    @Override
+    public boolean exists() {
+        File[] namespaceDirs = cacheFileDir.listFiles(File::isDirectory);
+        return namespaceDirs != null && namespaceDirs.length > 0;
+    }
+
+    @Override
+    public List<Map.Entry<String, String>> listGroups() {
+        List<Map.Entry<String, String>> groups = new ArrayList<>();
+        // 缓存根目录下的文件属于其他存储，只列出命名空间文件夹
+        File[] namespaceDirs = cacheFileDir.listFiles(File::isDirectory);
+        if (namespaceDirs == null) {
+            return groups;
+        }
+        for (File namespaceDir : namespaceDirs) {
+            // 获取缓存组对应的文件名称列表
+            String[] groupNames = namespaceDir.list();
+            // 如果命名空间文件夹下没有文件则删除该文件夹
+            if (cleanEmptyFileOrFolder(namespaceDir)) {
+                continue;
+            }
+            for (String groupName : Objects.requireNonNull(groupNames)) {
+                // 获取缓存组对应的文件
+                File groupFile = new File(namespaceDir, groupName);
+                // 清理写入中途退出时残留的临时文件
+                if (groupName.endsWith(TEMP_SUFFIX)) {
+                    deleteTempFile(groupFile);
+                    continue;
+                }
+                // 清理空文件
+                if (cleanEmptyFileOrFolder(groupFile)) {
+                    continue;
+                }
+                groups.add(Map.entry(namespaceDir.getName(), groupName));
+            }
+        }
+        return groups;
+    }
+
+    @Override
+    public List<Cache> loadGroup(String namespace, String group) throws IOException {
+        List<Cache> caches = new ArrayList<>();
+        Path groupFile = cacheFileDir.toPath().resolve(namespace).resolve(group);
+        if (!Files.isRegularFile(groupFile)) {
+            return caches;
+        }
+        try {
+            String cacheJson = Files.readString(groupFile);
+            // 获取缓存集合
+            Map<String, Cache> cacheMap = JsonUtil.fromJsonString(cacheJson, new TypeReference<>() {
+            });
+            cacheMap.forEach((name, cache) -> {
+                cache.setNamespace(namespace);
+                cache.setGroup(group);
+                cache.setName(name);
+                caches.add(cache);
+            });
+        } catch (AppException e) {
+            throw new IOException("解析缓存文件出错: " + groupFile, e);
+        }
+        return caches;
+    }
+
+    @Override
+    public void writeGroup(String namespace, String group, Map<String, Cache> groupCaches) throws IOException {
+        Path namespaceDir = cacheFileDir.toPath().resolve(namespace);
+        Path groupFile = namespaceDir.resolve(group);
+        if (groupCaches.isEmpty()) {
+            Files.deleteIfExists(groupFile);
+            return;
+        }
+        Files.createDirectories(namespaceDir);
+        byte[] bytes = COMPACT_WRITER.writeValueAsBytes(groupCaches);
+        Path tempFile = namespaceDir.resolve(group + TEMP_SUFFIX);
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+        try {
+            Files.move(tempFile, groupFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile, groupFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    @Override
+    public void delete() throws IOException {
+        File[] namespaceDirs = cacheFileDir.listFiles(File::isDirectory);
+        if (namespaceDirs == null) {
+            return;
+        }
+        for (File namespaceDir : namespaceDirs) {
+            File[] groupFiles = namespaceDir.listFiles();
+            if (groupFiles != null) {
+                for (File groupFile : groupFiles) {
+                    Files.deleteIfExists(groupFile.toPath());
+                }
+            }
+            Files.deleteIfExists(namespaceDir.toPath());
+        }
+    }
+
+    /**
+     * 删除残留的临时文件
+     *
+     * @param tempFile 临时文件
+     */
+    private void deleteTempFile(File tempFile) {
+        try {
+            Files.deleteIfExists(tempFile.toPath());
+            logger.info("删除缓存临时文件:{}", tempFile);
+        } catch (IOException e) {
+            logger.error("删除缓存临时文件出错!", e);
+        }
+    }
+
+    /**
+     * 清理空文件或空文件夹并返回结果
+     *
+     * @param fileOrFolder 文件或文件夹
+     * @return 是否清理
+     */
+    private boolean cleanEmptyFileOrFolder(File fileOrFolder) {
+        try {
+            if (fileOrFolder.isFile() && fileOrFolder.length() == 0) {
+                Files.delete(fileOrFolder.toPath());
+                logger.info("删除缓存文件:{}", fileOrFolder);
+                return true;
+            }
+
+            if (fileOrFolder.isDirectory() && Objects.requireNonNull(fileOrFolder.list()).length == 0) {
+                Files.delete(fileOrFolder.toPath());
+                logger.info("删除缓存文件夹:{}", fileOrFolder);
+                return true;
+            }
+        } catch (IOException e) {
+            logger.error("清理缓存文件或文件夹出错!", e);
+        }
+        return false;
+    }
+}
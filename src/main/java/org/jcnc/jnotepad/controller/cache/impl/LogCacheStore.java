@@ -0,0 +1,444 @@
+package org.jcnc.jnotepad.controller.cache.impl;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.jcnc.jnotepad.controller.cache.interfaces.CacheStore;
+import org.jcnc.jnotepad.model.entity.Cache;
+import org.jcnc.jnotepad.util.JsonUtil;
+import org.jcnc.jnotepad.util.LogUtil;
+import org.slf4j.Logger;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * 追加写入的日志缓存存储
+ *
+ * <p>所有缓存保存在一个文件中，每条记录为一个缓存的写入或删除，记录带有 CRC32 校验。列出缓存组时按顺序重放记录，
+ * 只得到每个缓存最新记录的位置索引，缓存内容在读取缓存组时才按索引从文件中读取并解析；
+ * 末尾不完整或校验失败的记录视为写入中途退出，截断后继续使用。</p>
+ *
+ * <p>写入缓存组时只追加内容有变化的缓存与被删除的缓存。文件中过期记录占比过高时，在缓存写入线程中将仍有效的记录
+ * 复制到新文件后原子替换。</p>
+ *
+ * <p>记录格式：{@code int 长度 | byte 类型 | UTF 命名空间 | UTF 组 | UTF 名称 | 值 | int CRC32}，
+ * 长度与校验只覆盖中间部分，值为缓存的 JSON。</p>
+ *
+ * @author gewuyou
+ */
+public class LogCacheStore implements CacheStore {
+    private static final Logger logger = LogUtil.getLogger(LogCacheStore.class);
+    /**
+     * 文件头，"JNC1"
+     */
+    private static final int MAGIC = 0x4A4E4331;
+    private static final int HEADER_SIZE = Integer.BYTES;
+    /**
+     * 记录中长度与校验占用的字节数
+     */
+    private static final int RECORD_OVERHEAD = Integer.BYTES * 2;
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    /**
+     * 单条记录的最大长度，超过时视为损坏
+     */
+    private static final int MAX_RECORD_SIZE = 64 * 1024 * 1024;
+    /**
+     * 文件小于该大小时不整理
+     */
+    private static final long COMPACT_MIN_SIZE = 256L * 1024;
+    /**
+     * 文件大小超过有效记录的该倍数时整理
+     */
+    private static final int COMPACT_RATIO = 2;
+    private static final String COMPACT_SUFFIX = ".compact";
+    private static final String CORRUPT_SUFFIX = ".corrupt";
+    private static final ObjectWriter COMPACT_WRITER = JsonUtil.OBJECT_MAPPER.writer().without(SerializationFeature.INDENT_OUTPUT);
+    private final Path logFile;
+    /**
+     * 每个缓存组中各缓存最新记录的位置
+     */
+    private Map<Map.Entry<String, String>, Map<String, IndexEntry>> index = new HashMap<>(16);
+    private FileChannel channel;
+    /**
+     * 文件中有效内容的长度，之后的内容为写入中途退出留下的不完整记录
+     */
+    private long fileSize;
+    /**
+     * 仍有效的记录占用的字节数
+     */
+    private long liveBytes;
+    private boolean loaded;
+    private boolean closed;
+
+    public LogCacheStore(Path logFile) {
+        this.logFile = logFile;
+    }
+
+    @Override
+    public boolean exists() {
+        return Files.isRegularFile(logFile);
+    }
+
+    @Override
+    public synchronized List<Map.Entry<String, String>> listGroups() throws IOException {
+        if (!loaded) {
+            loadIndex();
+        }
+        return new ArrayList<>(index.keySet());
+    }
+
+    @Override
+    public synchronized List<Cache> loadGroup(String namespace, String group) throws IOException {
+        if (!loaded) {
+            loadIndex();
+        }
+        List<Cache> caches = new ArrayList<>();
+        Map<String, IndexEntry> entries = index.get(Map.entry(namespace, group));
+        if (entries == null) {
+            return caches;
+        }
+        ensureOpen();
+        for (Map.Entry<String, IndexEntry> entry : entries.entrySet()) {
+            IndexEntry indexEntry = entry.getValue();
+            ByteBuffer value = ByteBuffer.allocate(indexEntry.valueLength);
+            while (value.hasRemaining()) {
+                if (channel.read(value, indexEntry.valueOffset + value.position()) < 0) {
+                    throw new EOFException("缓存记录不完整: " + logFile);
+                }
+            }
+            try {
+                Cache cache = JsonUtil.OBJECT_MAPPER.readValue(value.array(), Cache.class);
+                cache.setNamespace(namespace);
+                cache.setGroup(group);
+                cache.setName(entry.getKey());
+                caches.add(cache);
+            } catch (IOException e) {
+                logger.error("解析缓存出错:{}/{}/{}", namespace, group, entry.getKey(), e);
+            }
+        }
+        return caches;
+    }
+
+    @Override
+    public synchronized void writeGroup(String namespace, String group, Map<String, Cache> groupCaches) throws IOException {
+        ensureOpen();
+        Map.Entry<String, String> groupKey = Map.entry(namespace, group);
+        Map<String, IndexEntry> entries = index.getOrDefault(groupKey, Map.of());
+        ByteArrayOutputStream batch = new ByteArrayOutputStream();
+        Map<String, IndexEntry> puts = new HashMap<>(16);
+        List<String> deletes = new ArrayList<>();
+        for (Map.Entry<String, Cache> cacheEntry : groupCaches.entrySet()) {
+            byte[] value = COMPACT_WRITER.writeValueAsBytes(cacheEntry.getValue());
+            long valueCrc = crc(value, 0, value.length);
+            IndexEntry previous = entries.get(cacheEntry.getKey());
+            // 内容未变的缓存不必再次写入
+            if (previous != null && previous.valueLength == value.length && previous.valueCrc == valueCrc) {
+                continue;
+            }
+            long recordOffset = fileSize + batch.size();
+            int payloadLength = appendRecord(batch, PUT, namespace, group, cacheEntry.getKey(), value);
+            long valueOffset = recordOffset + Integer.BYTES + payloadLength - value.length;
+            puts.put(cacheEntry.getKey(), new IndexEntry(recordOffset, payloadLength + RECORD_OVERHEAD, valueOffset, value.length, valueCrc));
+        }
+        for (String name : entries.keySet()) {
+            if (!groupCaches.containsKey(name)) {
+                appendRecord(batch, DELETE, namespace, group, name, null);
+                deletes.add(name);
+            }
+        }
+        if (batch.size() == 0) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(batch.toByteArray());
+        long position = fileSize;
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        // 写入成功后才更新索引，写入失败时下次从同一位置覆盖
+        fileSize = position;
+        puts.forEach((name, entry) -> putEntry(groupKey, name, entry));
+        deletes.forEach(name -> removeEntry(groupKey, name));
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        if (channel != null) {
+            channel.force(false);
+        }
+    }
+
+    @Override
+    public synchronized void compactIfNeeded() {
+        if (closed || channel == null || fileSize < COMPACT_MIN_SIZE || fileSize <= liveBytes * COMPACT_RATIO + HEADER_SIZE) {
+            return;
+        }
+        try {
+            compact();
+        } catch (IOException e) {
+            logger.warn("整理缓存文件失败:{}", logFile, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.error("关闭缓存文件出错!", e);
+        }
+        channel = null;
+    }
+
+    @Override
+    public synchronized void delete() throws IOException {
+        close();
+        Files.deleteIfExists(logFile);
+        index = new HashMap<>(16);
+        fileSize = 0;
+        liveBytes = 0;
+    }
+
+    /**
+     * 读取文件并重放记录建立索引，不解析缓存内容
+     */
+    private void loadIndex() throws IOException {
+        index = new HashMap<>(16);
+        liveBytes = 0;
+        fileSize = 0;
+        loaded = true;
+        if (!exists()) {
+            return;
+        }
+        byte[] bytes = Files.readAllBytes(logFile);
+        if (bytes.length < HEADER_SIZE || ByteBuffer.wrap(bytes).getInt(0) != MAGIC) {
+            logger.error("缓存文件格式无效，已备份并重新创建:{}", logFile);
+            Files.move(logFile, logFile.resolveSibling(logFile.getFileName() + CORRUPT_SUFFIX), StandardCopyOption.REPLACE_EXISTING);
+            return;
+        }
+        fileSize = replay(bytes);
+        if (fileSize < bytes.length) {
+            // 打开文件时截断
+            logger.warn("缓存文件末尾有 {} 字节不完整的记录，已忽略:{}", bytes.length - fileSize, logFile);
+        }
+    }
+
+    /**
+     * 按顺序重放记录建立索引
+     *
+     * @param bytes 文件内容
+     * @return 有效内容的长度
+     */
+    private int replay(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int position = HEADER_SIZE;
+        while (position + RECORD_OVERHEAD <= bytes.length) {
+            int payloadLength = buffer.getInt(position);
+            if (payloadLength <= 0 || payloadLength > MAX_RECORD_SIZE
+                    || (long) position + RECORD_OVERHEAD + payloadLength > bytes.length) {
+                break;
+            }
+            int payloadOffset = position + Integer.BYTES;
+            if ((int) crc(bytes, payloadOffset, payloadLength) != buffer.getInt(payloadOffset + payloadLength)) {
+                break;
+            }
+            try {
+                applyRecord(bytes, position, payloadLength);
+            } catch (IOException e) {
+                break;
+            }
+            position += payloadLength + RECORD_OVERHEAD;
+        }
+        return position;
+    }
+
+    private void applyRecord(byte[] bytes, int recordOffset, int payloadLength) throws IOException {
+        int payloadOffset = recordOffset + Integer.BYTES;
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, payloadOffset, payloadLength));
+        byte type = in.readByte();
+        Map.Entry<String, String> groupKey = Map.entry(in.readUTF(), in.readUTF());
+        String name = in.readUTF();
+        if (type == PUT) {
+            int valueLength = in.available();
+            int valueOffset = payloadOffset + payloadLength - valueLength;
+            putEntry(groupKey, name, new IndexEntry(recordOffset, payloadLength + RECORD_OVERHEAD, valueOffset,
+                    valueLength, crc(bytes, valueOffset, valueLength)));
+        } else if (type == DELETE) {
+            removeEntry(groupKey, name);
+        } else {
+            throw new EOFException("未知的记录类型: " + type);
+        }
+    }
+
+    private void putEntry(Map.Entry<String, String> groupKey, String name, IndexEntry entry) {
+        IndexEntry previous = index.computeIfAbsent(groupKey, k -> new HashMap<>(16)).put(name, entry);
+        if (previous != null) {
+            liveBytes -= previous.recordLength;
+        }
+        liveBytes += entry.recordLength;
+    }
+
+    private void removeEntry(Map.Entry<String, String> groupKey, String name) {
+        Map<String, IndexEntry> entries = index.get(groupKey);
+        if (entries == null) {
+            return;
+        }
+        IndexEntry previous = entries.remove(name);
+        if (previous != null) {
+            liveBytes -= previous.recordLength;
+        }
+        if (entries.isEmpty()) {
+            index.remove(groupKey);
+        }
+    }
+
+    /**
+     * 在批量写入的缓冲区末尾追加一条记录
+     *
+     * @return 记录中间部分的长度
+     */
+    private int appendRecord(ByteArrayOutputStream batch, byte type, String namespace, String group, String name,
+                             byte[] value) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        DataOutputStream payloadOut = new DataOutputStream(payload);
+        payloadOut.writeByte(type);
+        payloadOut.writeUTF(namespace);
+        payloadOut.writeUTF(group);
+        payloadOut.writeUTF(name);
+        if (value != null) {
+            payloadOut.write(value);
+        }
+        byte[] bytes = payload.toByteArray();
+        DataOutputStream out = new DataOutputStream(batch);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+        out.writeInt((int) crc(bytes, 0, bytes.length));
+        return bytes.length;
+    }
+
+    /**
+     * 打开文件用于读写，新文件写入文件头，已有文件截断末尾不完整的记录
+     */
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("缓存文件已关闭: " + logFile);
+        }
+        if (channel != null) {
+            return;
+        }
+        if (!loaded) {
+            loadIndex();
+        }
+        Files.createDirectories(logFile.toAbsolutePath().getParent());
+        channel = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (fileSize < HEADER_SIZE) {
+            channel.truncate(0);
+            channel.write(ByteBuffer.allocate(HEADER_SIZE).putInt(0, MAGIC), 0);
+            fileSize = HEADER_SIZE;
+        } else if (channel.size() > fileSize) {
+            channel.truncate(fileSize);
+        }
+    }
+
+    /**
+     * 将仍有效的记录复制到新文件后替换原文件
+     */
+    private void compact() throws IOException {
+        Path compactFile = logFile.resolveSibling(logFile.getFileName() + COMPACT_SUFFIX);
+        Map<Map.Entry<String, String>, Map<String, IndexEntry>> compactedIndex = new HashMap<>(16);
+        long position = HEADER_SIZE;
+        try (FileChannel out = FileChannel.open(compactFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            out.write(ByteBuffer.allocate(HEADER_SIZE).putInt(0, MAGIC), 0);
+            for (Map.Entry<Map.Entry<String, String>, Map<String, IndexEntry>> group : index.entrySet()) {
+                Map<String, IndexEntry> compactedEntries = new HashMap<>(group.getValue().size() * 2);
+                for (Map.Entry<String, IndexEntry> entry : group.getValue().entrySet()) {
+                    IndexEntry indexEntry = entry.getValue();
+                    // 记录原样复制，校验值不变
+                    ByteBuffer record = ByteBuffer.allocate(indexEntry.recordLength);
+                    while (record.hasRemaining()) {
+                        if (channel.read(record, indexEntry.recordOffset + record.position()) < 0) {
+                            throw new EOFException("缓存记录不完整: " + logFile);
+                        }
+                    }
+                    record.flip();
+                    long recordOffset = position;
+                    while (record.hasRemaining()) {
+                        position += out.write(record, position);
+                    }
+                    compactedEntries.put(entry.getKey(), indexEntry.moveTo(recordOffset));
+                }
+                compactedIndex.put(group.getKey(), compactedEntries);
+            }
+            out.force(true);
+        } catch (IOException e) {
+            Files.deleteIfExists(compactFile);
+            throw e;
+        }
+        channel.close();
+        channel = null;
+        try {
+            try {
+                Files.move(compactFile, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(compactFile, logFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            logger.info("整理缓存文件:{} -> {} 字节", fileSize, position);
+            index = compactedIndex;
+            fileSize = position;
+            liveBytes = position - HEADER_SIZE;
+        } finally {
+            // 替换失败时继续使用原文件
+            channel = FileChannel.open(logFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+    }
+
+    private static long crc(byte[] bytes, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+        return crc.getValue();
+    }
+
+    /**
+     * 缓存最新记录在文件中的位置
+     */
+    private static final class IndexEntry {
+        private final long recordOffset;
+        private final int recordLength;
+        private final long valueOffset;
+        private final int valueLength;
+        private final long valueCrc;
+
+        private IndexEntry(long recordOffset, int recordLength, long valueOffset, int valueLength, long valueCrc) {
+            this.recordOffset = recordOffset;
+            this.recordLength = recordLength;
+            this.valueOffset = valueOffset;
+            this.valueLength = valueLength;
+            this.valueCrc = valueCrc;
+        }
+
+        private IndexEntry moveTo(long newRecordOffset) {
+            return new IndexEntry(newRecordOffset, recordLength, valueOffset - recordOffset + newRecordOffset, valueLength, valueCrc);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.jcnc.jnotepad.controller.cache.interfaces;
+
+import org.jcnc.jnotepad.model.entity.Cache;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 缓存存储接口
+ *
+ * <p>缓存以组为单位读取与写入，启动时只列出缓存组，缓存组在第一次使用时才读取；每次写入替换整个组的内容。
+ * 读取缓存组可能在 JavaFX 线程中与缓存写入线程同时进行，实现类需保证线程安全。</p>
+ *
+ * @author gewuyou
+ */
+public interface CacheStore {
+    /**
+     * 本地是否已有该存储的数据
+     *
+     * @return 是否存在
+     */
+    boolean exists();
+
+    /**
+     * 列出所有缓存组，只读取索引，不解析缓存内容
+     *
+     * @return 缓存组，键为命名空间，值为组
+     * @throws IOException 读取失败
+     */
+    List<Map.Entry<String, String>> listGroups() throws IOException;
+
+    /**
+     * 读取一个缓存组
+     *
+     * @param namespace 命名空间
+     * @param group     组
+     * @return 已设置命名空间、组与名称的缓存，包括已过期的缓存
+     * @throws IOException 读取失败
+     */
+    List<Cache> loadGroup(String namespace, String group) throws IOException;
+
+    /**
+     * 读取所有缓存，用于迁移
+     *
+     * @return 已设置命名空间、组与名称的缓存，包括已过期的缓存
+     * @throws IOException 读取失败
+     */
+    default List<Cache> load() throws IOException {
+        List<Cache> caches = new ArrayList<>();
+        for (Map.Entry<String, String> group : listGroups()) {
+            caches.addAll(loadGroup(group.getKey(), group.getValue()));
+        }
+        return caches;
+    }
+
+    /**
+     * 写入一个缓存组，替换组内原有的缓存
+     *
+     * @param namespace   命名空间
+     * @param group       组
+     * @param groupCaches 组内的缓存，键为缓存名称，为空时删除该组
+     * @throws IOException 写入失败
+     */
+    void writeGroup(String namespace, String group, Map<String, Cache> groupCaches) throws IOException;
+
+    /**
+     * 将已写入的缓存刷新到磁盘，在一批缓存组写入后调用
+     *
+     * @throws IOException 刷新失败
+     */
+    default void flush() throws IOException {
+    }
+
+    /**
+     * 在需要时整理存储占用的空间，在缓存写入线程中调用
+     */
+    default void compactIfNeeded() {
+    }
+
+    /**
+     * 关闭存储，之后不再写入
+     */
+    default void close() {
+    }
+
+    /**
+     * 删除该存储的所有数据，用于迁移到其他存储后清理
+     *
+     * @throws IOException 删除失败
+     */
+    void delete() throws IOException;
+}
@@ -3,10 +3,13 @@ package org.jcnc.jnotepad.controller.config;
 import org.jcnc.jnotepad.api.core.controller.config.BaseConfigController;
 import org.jcnc.jnotepad.app.config.UserConfig;
 import org.jcnc.jnotepad.model.entity.ShortcutKey;
+import org.jcnc.jnotepad.model.enums.CacheEvictionPolicy;
+import org.jcnc.jnotepad.model.enums.CacheStoreType;
 
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 import static org.jcnc.jnotepad.common.constants.AppConstants.PROGRAM_FILE_DIRECTORY;
 import static org.jcnc.jnotepad.common.constants.TextConstants.CHINESE;
@@ -28,6 +31,20 @@ public class UserConfigController extends BaseConfigController<UserConfig> {
     private static final String CTRL_S = "ctrl+s";
     private static final String CTRL_ALT_S = "ctrl+alt+s";
     private static final String ALT_S = "alt+s";
+    /**
+     * 默认的大文件模式阈值，64MB
+     */
+    private static final long DEFAULT_LARGE_FILE_THRESHOLD = 64L * 1024 * 1024;
+    private static final long DEFAULT_AUTO_SAVE_INTERVAL = 1000L;
+    private static final int DEFAULT_MAX_LOADED_TABS = 20;
+    private static final List<String> DEFAULT_DIRECTORY_EXCLUDES = List.of("node_modules", "target", ".git");
+    private static final int DEFAULT_DIRECTORY_ENTRY_LIMIT = 500;
+    private static final int DEFAULT_CACHE_MAX_ENTRIES = 10_000;
+    private static final int DEFAULT_PLUGIN_CACHE_MAX_ENTRIES = 1000;
+    /**
+     * 默认的每个插件缓存数据大小上限，1MB
+     */
+    private static final long DEFAULT_PLUGIN_CACHE_MAX_BYTES = 1024L * 1024;
     private static final UserConfigController INSTANCE = new UserConfigController();
     private String configDir;
 
@@ -104,6 +121,17 @@ public class UserConfigController extends BaseConfigController<UserConfig> {
         UserConfig config = new UserConfig();
         config.setLanguage(CHINESE);
         config.setTextWrap(false);
+        config.setLargeFileThreshold(DEFAULT_LARGE_FILE_THRESHOLD);
+        config.setAutoSaveInterval(DEFAULT_AUTO_SAVE_INTERVAL);
+        config.setMaxLoadedTabs(DEFAULT_MAX_LOADED_TABS);
+        config.setSyncOnSave(true);
+        config.setDirectoryExcludes(new ArrayList<>(DEFAULT_DIRECTORY_EXCLUDES));
+        config.setDirectoryEntryLimit(DEFAULT_DIRECTORY_ENTRY_LIMIT);
+        config.setCacheStore(CacheStoreType.LOG.name().toLowerCase(Locale.ROOT));
+        config.setCacheMaxEntries(DEFAULT_CACHE_MAX_ENTRIES);
+        config.setCacheEvictionPolicy(CacheEvictionPolicy.LRU.name().toLowerCase(Locale.ROOT));
+        config.setPluginCacheMaxEntries(DEFAULT_PLUGIN_CACHE_MAX_ENTRIES);
+        config.setPluginCacheMaxBytes(DEFAULT_PLUGIN_CACHE_MAX_BYTES);
 
         List<ShortcutKey> shortcutKeys = new ArrayList<>();
         shortcutKeys.add(createShortcutKey("newItem", CTRL_N));
@@ -133,6 +161,146 @@ public class UserConfigController extends BaseConfigController<UserConfig> {
         getConfig().setTextWrap(isAutoLine);
     }
 
+    /**
+     * 获取大文件模式的文件大小阈值，超过该大小的文件以只读的大文件模式打开。
+     *
+     * @return 阈值（字节）
+     */
+    public long getLargeFileThreshold() {
+        return orDefault(getConfig().getLargeFileThreshold(), DEFAULT_LARGE_FILE_THRESHOLD);
+    }
+
+    /**
+     * 获取自动保存间隔，停止输入超过该时间后自动保存关联文件。
+     *
+     * @return 间隔（毫秒），不大于 0 时关闭自动保存，修改在手动保存或退出程序时写入
+     */
+    public long getAutoSaveInterval() {
+        return orDefault(getConfig().getAutoSaveInterval(), DEFAULT_AUTO_SAVE_INTERVAL);
+    }
+
+    /**
+     * 获取同时保留内容的标签页数量上限，超出后休眠最久未访问的标签页。
+     * 休眠只保留光标与滚动位置，重新加载后撤销记录不会保留。
+     *
+     * @return 标签页数量上限，至少为 1，配置为 0 或负数时仍保留最近访问的标签页
+     */
+    public int getMaxLoadedTabs() {
+        return Math.max(1, orDefault(getConfig().getMaxLoadedTabs(), DEFAULT_MAX_LOADED_TABS));
+    }
+
+    /**
+     * 保存时是否将文件内容刷新到磁盘后再替换原文件，关闭后保存更快但断电时可能丢失最近的保存。
+     *
+     * @return 是否刷新到磁盘
+     */
+    public boolean isSyncOnSave() {
+        return orDefault(getConfig().getSyncOnSave(), true);
+    }
+
+    /**
+     * 获取打开文件夹时不扫描的文件夹名称，如依赖与构建输出目录。
+     *
+     * @return 文件夹名称
+     */
+    public List<String> getDirectoryExcludes() {
+        return orDefault(getConfig().getDirectoryExcludes(), DEFAULT_DIRECTORY_EXCLUDES);
+    }
+
+    /**
+     * 获取文件树中每个文件夹一次显示的子项数量上限，超出部分折叠为"显示更多"。
+     *
+     * @return 子项数量上限
+     */
+    public int getDirectoryEntryLimit() {
+        return positiveOrDefault(getConfig().getDirectoryEntryLimit(), DEFAULT_DIRECTORY_ENTRY_LIMIT);
+    }
+
+    /**
+     * 获取缓存存储类型，未配置或无法识别时使用日志存储。
+     *
+     * @return 缓存存储类型
+     */
+    public CacheStoreType getCacheStoreType() {
+        return enumOrDefault(getConfig().getCacheStore(), CacheStoreType.LOG);
+    }
+
+    /**
+     * 获取每个缓存命名空间的缓存数量上限，超出后按淘汰策略淘汰。
+     *
+     * @return 缓存数量上限
+     */
+    public int getCacheMaxEntries() {
+        return positiveOrDefault(getConfig().getCacheMaxEntries(), DEFAULT_CACHE_MAX_ENTRIES);
+    }
+
+    /**
+     * 获取缓存淘汰策略，未配置或无法识别时淘汰最久未访问的缓存。
+     *
+     * @return 淘汰策略
+     */
+    public CacheEvictionPolicy getCacheEvictionPolicy() {
+        return enumOrDefault(getConfig().getCacheEvictionPolicy(), CacheEvictionPolicy.LRU);
+    }
+
+    /**
+     * 获取每个插件的缓存数量上限，超出后按淘汰策略淘汰。
+     *
+     * @return 缓存数量上限
+     */
+    public int getPluginCacheMaxEntries() {
+        return positiveOrDefault(getConfig().getPluginCacheMaxEntries(), DEFAULT_PLUGIN_CACHE_MAX_ENTRIES);
+    }
+
+    /**
+     * 获取每个插件的缓存数据大小上限（字节），超出后按淘汰策略淘汰。
+     *
+     * @return 缓存数据大小上限
+     */
+    public long getPluginCacheMaxBytes() {
+        return positiveOrDefault(getConfig().getPluginCacheMaxBytes(), DEFAULT_PLUGIN_CACHE_MAX_BYTES);
+    }
+
+    /**
+     * 获取配置项，未配置时使用默认值。旧版本配置文件中没有后来新增的配置项，读取后为 null。
+     *
+     * @param value        配置值
+     * @param defaultValue 默认值
+     * @return 配置值或默认值
+     */
+    private static <T> T orDefault(T value, T defaultValue) {
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * 获取数量或大小配置项，未配置或不是正数时使用默认值。
+     *
+     * @param value        配置值
+     * @param defaultValue 默认值
+     * @return 配置值或默认值
+     */
+    private static <T extends Number> T positiveOrDefault(T value, T defaultValue) {
+        return value == null || value.longValue() <= 0 ? defaultValue : value;
+    }
+
+    /**
+     * 获取枚举配置项，忽略大小写与首尾空白，未配置或无法识别时使用默认值。
+     *
+     * @param value        配置值
+     * @param defaultValue 默认值
+     * @return 枚举值
+     */
+    private static <E extends Enum<E>> E enumOrDefault(String value, E defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Enum.valueOf(defaultValue.getDeclaringClass(), value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return defaultValue;
+        }
+    }
+
     /**
      * 更新配置文件中的语言设置。
      *
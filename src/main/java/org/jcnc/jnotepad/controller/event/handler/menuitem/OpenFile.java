@@ -7,8 +7,11 @@ import javafx.stage.FileChooser;
 import org.jcnc.jnotepad.app.i18n.UiResourceBundle;
 import org.jcnc.jnotepad.common.constants.TextConstants;
 import org.jcnc.jnotepad.common.manager.ApplicationCacheManager;
+import org.jcnc.jnotepad.common.manager.FileLoadManager;
 import org.jcnc.jnotepad.component.module.TextCodeArea;
 import org.jcnc.jnotepad.component.stage.dialog.factory.impl.BasicFileChooserFactory;
+import org.jcnc.jnotepad.controller.config.UserConfigController;
+import org.jcnc.jnotepad.model.document.LineOffsetIndex;
 import org.jcnc.jnotepad.model.entity.Cache;
 import org.jcnc.jnotepad.model.enums.CacheExpirationTime;
 import org.jcnc.jnotepad.util.EncodingDetector;
@@ -17,12 +20,11 @@ import org.jcnc.jnotepad.util.UiUtil;
 import org.jcnc.jnotepad.views.manager.CenterTabPaneManager;
 import org.jcnc.jnotepad.views.root.center.main.center.tab.CenterTab;
 import org.jcnc.jnotepad.views.root.center.main.center.tab.CenterTabPane;
+import org.jcnc.jnotepad.views.root.center.main.center.tab.LargeFileCenterTab;
 
 import java.io.File;
 import java.nio.charset.Charset;
 
-import static org.jcnc.jnotepad.util.FileUtil.getFileText;
-
 
 /**
  * 打开文件的事件处理程序。
@@ -84,32 +86,68 @@ public class OpenFile implements EventHandler<ActionEvent> {
                 return;
             }
         }
+        // 超过阈值的文件以只读的大文件模式打开
+        if (file.length() >= UserConfigController.getInstance().getLargeFileThreshold()) {
+            Charset encoding = EncodingDetector.detectEncodingCharset(file);
+            if (LineOffsetIndex.isSupported(encoding)) {
+                LogUtil.getLogger(OpenFile.class).info("以大文件模式打开: {}", file);
+                CenterTabPaneManager.getInstance().addNewTab(new LargeFileCenterTab(file, encoding));
+                return;
+            }
+        }
         getText(file);
     }
 
     /**
      * 读取文本文件的内容。
+     * <p>
+     * 标签页立即显示，编码检测与文件内容的读取在后台进行。
      *
      * @param file 文件对象
      */
     public static void getText(File file) {
         TextCodeArea textCodeArea = createNewTextArea();
-        // 检测文件编码
-        Charset encoding = EncodingDetector.detectEncodingCharset(file);
-        String fileText = getFileText(file, encoding);
         LogUtil.getLogger(OpenFile.class).info("已调用读取文件功能");
-        textCodeArea.appendText(fileText);
-        CenterTab tab = createNewTab(file.getName(), textCodeArea, encoding);
+        CenterTab tab = createNewTab(file.getName(), textCodeArea, Charset.defaultCharset());
         // 设置当前标签页关联本地文件
         tab.setRelevance(true);
         // 设置标签页关联文件
         tab.setUserData(file);
-        // 设置关联文件最后的修改时间
+        // 根据文件扩展名选择语言语法
+        tab.updateLanguageGrammar();
+        // 设置关联文件最后的修改时间，避免加载期间被误判为外部修改
         tab.setLastModifiedTimeOfAssociatedFile(file.lastModified());
         CenterTabPaneManager.getInstance().addNewTab(tab);
+        FileLoadManager.getInstance().load(tab, file);
     }
 
 
+    /**
+     * 创建用于恢复上次会话的标签页。
+     * <p>
+     * 普通文件的标签页只记录文件信息，文件内容在标签页首次被选中时才读取。
+     *
+     * @param file          文件对象
+     * @param charset       上次使用的编码，为 null 时读取时检测
+     * @param caretPosition 上次的光标位置
+     * @return 标签页
+     */
+    public static CenterTab createRestoredTab(File file, Charset charset, int caretPosition) {
+        if (file.length() >= UserConfigController.getInstance().getLargeFileThreshold()) {
+            Charset encoding = charset == null ? EncodingDetector.detectEncodingCharset(file) : charset;
+            if (LineOffsetIndex.isSupported(encoding)) {
+                return new LargeFileCenterTab(file, encoding);
+            }
+        }
+        CenterTab tab = createNewTab(file.getName(), createNewTextArea(), charset == null ? Charset.defaultCharset() : charset);
+        tab.setRelevance(true);
+        tab.setUserData(file);
+        tab.updateLanguageGrammar();
+        tab.setLastModifiedTimeOfAssociatedFile(file.lastModified());
+        tab.deferContentLoad(charset, caretPosition);
+        return tab;
+    }
+
     /**
      * 创建新的文本区域。
      *
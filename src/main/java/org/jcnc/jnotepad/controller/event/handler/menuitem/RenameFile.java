@@ -5,6 +5,7 @@ import javafx.event.EventHandler;
 import javafx.scene.control.TextField;
 import javafx.scene.input.KeyCode;
 import javafx.stage.FileChooser;
+import org.jcnc.jnotepad.common.manager.FileWatchManager;
 import org.jcnc.jnotepad.app.i18n.UiResourceBundle;
 import org.jcnc.jnotepad.common.constants.TextConstants;
 import org.jcnc.jnotepad.component.stage.dialog.factory.impl.BasicFileChooserFactory;
@@ -152,8 +153,10 @@ public class RenameFile implements EventHandler<ActionEvent> {
             boolean rename = file.renameTo(newFile);
             // 设置文件数据
             centerTab.setUserData(newFile);
+            FileWatchManager.getInstance().updateWatchedDirectories();
             if (rename) {
                 centerTab.setText(newFile.getName());
+                centerTab.updateLanguageGrammar();
                 logger.info("文件重命名成功");
             } else {
                 logger.debug("文件重命名失败");
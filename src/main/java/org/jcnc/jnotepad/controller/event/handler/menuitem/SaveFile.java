@@ -6,6 +6,7 @@ import javafx.stage.FileChooser;
 import org.jcnc.jnotepad.app.i18n.UiResourceBundle;
 import org.jcnc.jnotepad.common.constants.TextConstants;
 import org.jcnc.jnotepad.common.manager.ApplicationCacheManager;
+import org.jcnc.jnotepad.common.manager.AutoSaveManager;
 import org.jcnc.jnotepad.component.stage.dialog.factory.impl.BasicFileChooserFactory;
 import org.jcnc.jnotepad.controller.config.UserConfigController;
 import org.jcnc.jnotepad.controller.i18n.LocalizationController;
@@ -54,16 +55,19 @@ public class SaveFile implements EventHandler<ActionEvent> {
             saveTab(this.getClass());
         } else {
             logger.info("当前保存文件为关联打开文件，调用自动保存方法");
-            // 调用tab保存方法
-            selectedTab.saveSelectedFileTab();
-            // 如果该文件是配置文件，则刷新快捷键
+            // 如果该文件是配置文件，则写入完成后刷新快捷键
             if (CONFIG_NAME.equals(selectedTab.getText())) {
-                // 重新加载语言包和快捷键
-                UserConfigController.getInstance().loadConfig();
-                TopMenuBarManager.getInstance().initShortcutKeys();
-                LocalizationController.initLocal();
-                logger.info("已刷新语言包！");
-                logger.info("已刷新快捷键！");
+                AutoSaveManager.getInstance().saveThen(selectedTab, () -> {
+                    // 重新加载语言包和快捷键
+                    UserConfigController.getInstance().loadConfig();
+                    TopMenuBarManager.getInstance().initShortcutKeys();
+                    LocalizationController.initLocal();
+                    logger.info("已刷新语言包！");
+                    logger.info("已刷新快捷键！");
+                });
+            } else {
+                // 调用tab保存方法
+                selectedTab.saveSelectedFileTab();
             }
         }
     }
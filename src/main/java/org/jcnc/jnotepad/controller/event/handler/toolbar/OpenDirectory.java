@@ -61,7 +61,7 @@ public class OpenDirectory implements EventHandler<ActionEvent> {
         CACHE_MANAGER.addCache(CACHE_MANAGER.createCache(GROUP, "folderThatWasOpened", file.getAbsolutePath(), CacheExpirationTime.NEVER_EXPIRES.getValue()));
         // 打开侧边栏
         DIRECTORY_SIDEBAR_MANAGER.controlShow(true);
-        // 设置文件树功能
+        // 设置文件树功能，文件夹在后台并行扫描，扫描结果陆续显示
         DIRECTORY_SIDEBAR_MANAGER.setTreeView(dirFileModel);
     }
 }
@@ -8,6 +8,7 @@ package org.jcnc.jnotepad.controller.exception;
  * @author gewuyou
  */
 public class AppException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
 
     /**
      * 构造一个应用异常对象。
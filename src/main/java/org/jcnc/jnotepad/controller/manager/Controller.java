@@ -4,10 +4,17 @@ import org.jcnc.jnotepad.common.manager.ApplicationCacheManager;
 import org.jcnc.jnotepad.component.module.interfaces.ControllerAble;
 import org.jcnc.jnotepad.controller.event.handler.menuitem.NewFile;
 import org.jcnc.jnotepad.controller.event.handler.menuitem.OpenFile;
+import org.jcnc.jnotepad.util.LogUtil;
+import org.jcnc.jnotepad.views.manager.CenterTabPaneManager;
+import org.jcnc.jnotepad.views.root.center.main.center.tab.CenterTab;
+import org.jcnc.jnotepad.views.root.center.main.center.tab.CenterTabPane;
+import org.slf4j.Logger;
 
 import java.io.File;
+import java.nio.charset.Charset;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -17,6 +24,7 @@ import java.util.Optional;
  */
 public class Controller implements ControllerAble<List<String>> {
     private static final ApplicationCacheManager CACHE_MANAGER = ApplicationCacheManager.getInstance();
+    private static final Logger logger = LogUtil.getLogger(Controller.class);
 
     private static final Controller INSTANCE = new Controller();
 
@@ -38,24 +46,79 @@ public class Controller implements ControllerAble<List<String>> {
      * @param rawParameters 原始参数列表
      */
     @Override
+    @SuppressWarnings("unchecked")
     public void openAssociatedFileAndCreateTextArea(List<String> rawParameters) {
         // 获取上次打开的页面
         Optional<Object> cacheData = Optional.ofNullable(CACHE_MANAGER.getCacheData("tabs", "centerTabs"));
         // 判空
-        List<String> fileTab = (List<String>) cacheData.orElse(Collections.emptyList());
-        // 打开上次打开的标签页
-        fileTab.forEach(filePath -> OpenFile.openFile(new File(filePath)));
+        List<Object> fileTab = (List<Object>) cacheData.orElse(Collections.emptyList());
+        // 恢复上次打开的标签页
+        restoreTabs(fileTab);
 
         if (!rawParameters.isEmpty()) {
             String filePath = rawParameters.get(0);
             openAssociatedFile(filePath);
             return;
         }
-        if (fileTab.isEmpty()) {
+        // 没有可恢复的标签页时新建空白标签页
+        if (CenterTabPane.getInstance().getTabs().isEmpty()) {
             new NewFile().addNewFileTab();
         }
     }
 
+    /**
+     * 恢复上次打开的标签页，文件内容在标签页首次被选中时才读取。
+     *
+     * @param tabStates 标签页缓存，旧版本缓存中为文件路径字符串
+     */
+    private void restoreTabs(List<Object> tabStates) {
+        CenterTabPane centerTabPane = CenterTabPane.getInstance();
+        CenterTab selected = null;
+        for (Object tabState : tabStates) {
+            String path;
+            Charset charset = null;
+            int caretPosition = 0;
+            boolean isSelected = false;
+            if (tabState instanceof String) {
+                path = (String) tabState;
+            } else if (tabState instanceof Map) {
+                Map<?, ?> state = (Map<?, ?>) tabState;
+                path = (String) state.get(CenterTabPaneManager.TAB_STATE_PATH);
+                charset = parseCharset(state.get(CenterTabPaneManager.TAB_STATE_CHARSET));
+                Object caret = state.get(CenterTabPaneManager.TAB_STATE_CARET_POSITION);
+                caretPosition = caret instanceof Number ? ((Number) caret).intValue() : 0;
+                isSelected = Boolean.TRUE.equals(state.get(CenterTabPaneManager.TAB_STATE_SELECTED));
+            } else {
+                continue;
+            }
+            File file = path == null ? null : new File(path);
+            if (file == null || !file.isFile()) {
+                logger.warn("上次打开的文件已不存在: {}", path);
+                continue;
+            }
+            CenterTab tab = OpenFile.createRestoredTab(file, charset, caretPosition);
+            centerTabPane.getTabs().add(tab);
+            if (isSelected || selected == null) {
+                selected = tab;
+            }
+        }
+        if (selected != null) {
+            centerTabPane.getSelectionModel().select(selected);
+            CenterTabPaneManager.getInstance().fireTabSelected();
+        }
+    }
+
+    private static Charset parseCharset(Object charsetName) {
+        if (!(charsetName instanceof String)) {
+            return null;
+        }
+        try {
+            return Charset.forName((String) charsetName);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     /**
      * 打开关联文件。
      *
@@ -0,0 +1,135 @@
+package org.jcnc.jnotepad.model.document;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 修改区间记录
+ *
+ * <p>记录文档自上次保存后修改过的区间（当前文档坐标），供保存时只改写这些区间。
+ * 区间按起始偏移排序且互不重叠，数量过多时不再记录，视为整个文档都已修改。</p>
+ *
+ * <p>该类不是线程安全的，只应在 JavaFX 线程中使用。</p>
+ *
+ * @author gewuyou
+ */
+public class DirtyRangeTracker {
+    /**
+     * 最多记录的修改区间数量
+     */
+    private static final int MAX_DIRTY_RANGES = 256;
+    private final List<int[]> dirtyRanges = new ArrayList<>();
+    /**
+     * 修改区间过多时不再记录，视为整个文档都已修改
+     */
+    private boolean allDirty;
+    /**
+     * 上次保存时的文档长度
+     */
+    private int cleanLength;
+    /**
+     * 当前文档长度
+     */
+    private int length;
+
+    /**
+     * 记录一次修改涉及的区间，与已有的区间合并
+     *
+     * @param start          替换的起始偏移
+     * @param end            替换前的结束偏移
+     * @param insertedLength 插入的字符数
+     */
+    public void record(int start, int end, int insertedLength) {
+        int delta = insertedLength - (end - start);
+        length += delta;
+        if (allDirty || (start == end && insertedLength == 0)) {
+            return;
+        }
+        int dirtyStart = start;
+        // 长度变化时其后的内容整体移动，直到文档末尾都视为已修改
+        int dirtyEnd = delta == 0 ? start + insertedLength : length;
+        List<int[]> merged = new ArrayList<>(dirtyRanges.size() + 1);
+        boolean added = false;
+        for (int[] range : dirtyRanges) {
+            if (range[1] < start) {
+                merged.add(range);
+            } else if (delta == 0 && range[0] > end) {
+                if (!added) {
+                    merged.add(new int[]{dirtyStart, dirtyEnd});
+                    added = true;
+                }
+                merged.add(range);
+            } else {
+                dirtyStart = Math.min(dirtyStart, range[0]);
+                dirtyEnd = Math.max(dirtyEnd, range[1] + delta);
+            }
+        }
+        if (!added) {
+            merged.add(new int[]{dirtyStart, dirtyEnd});
+        }
+        dirtyRanges.clear();
+        if (merged.size() > MAX_DIRTY_RANGES) {
+            allDirty = true;
+        } else {
+            dirtyRanges.addAll(merged);
+        }
+    }
+
+    /**
+     * 取出上次保存后修改过的区间，并以当前内容作为新的保存状态
+     *
+     * @return 修改过的区间，无法确定时返回 null
+     */
+    public DirtyRanges take() {
+        DirtyRanges result = allDirty ? null : new DirtyRanges(cleanLength, dirtyRanges.toArray(new int[0][]));
+        reset(length);
+        return result;
+    }
+
+    /**
+     * 将整个文档标记为已修改，用于保存失败后文件内容不确定的情况
+     */
+    public void markAllDirty() {
+        dirtyRanges.clear();
+        allDirty = true;
+    }
+
+    /**
+     * 以指定长度的文档作为已保存的状态，清空修改区间
+     *
+     * @param length 文档长度
+     */
+    public void reset(int length) {
+        dirtyRanges.clear();
+        allDirty = false;
+        this.length = length;
+        this.cleanLength = length;
+    }
+
+    /**
+     * 上次保存后修改过的区间
+     */
+    public static final class DirtyRanges {
+        /**
+         * 上次保存时的文档长度
+         */
+        private final int cleanLength;
+        /**
+         * 修改过的区间，每个元素为当前文档中的 {起始偏移, 结束偏移}
+         */
+        private final int[][] ranges;
+
+        private DirtyRanges(int cleanLength, int[][] ranges) {
+            this.cleanLength = cleanLength;
+            this.ranges = ranges;
+        }
+
+        public int getCleanLength() {
+            return cleanLength;
+        }
+
+        public int[][] getRanges() {
+            return ranges;
+        }
+    }
+}
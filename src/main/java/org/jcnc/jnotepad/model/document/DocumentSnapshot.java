@@ -0,0 +1,137 @@
+package org.jcnc.jnotepad.model.document;
+
+import org.fxmisc.richtext.model.Paragraph;
+import org.fxmisc.richtext.model.StyledDocument;
+import org.fxmisc.richtext.model.TwoDimensional;
+
+import java.nio.CharBuffer;
+import java.util.function.Consumer;
+
+/**
+ * 文本域内容的不可变快照
+ *
+ * <p>RichTextFX 的文档由不可变的段落组成，{@code EditableStyledDocument#snapshot()} 直接返回当前的不可变文档，
+ * 不复制文本。该类把这样的文档包装为字符序列，段落之间以 {@code \n} 分隔，供保存与语法高亮线程读取；
+ * 堆内存中只有文本域自己的一份文本。</p>
+ *
+ * <p>快照本身不是线程安全的（会缓存上次访问的段落），每个快照只应由一个线程读取。</p>
+ *
+ * @author gewuyou
+ */
+public class DocumentSnapshot implements CharSequence {
+    private static final char LINE_FEED = '\n';
+    private static final String LINE_SEPARATOR = "\n";
+
+    private final StyledDocument<?, ?, ?> document;
+    private final int length;
+    private final int paragraphCount;
+    /**
+     * 上次访问的段落，顺序读取时避免重复查找
+     */
+    private int cachedParagraph = -1;
+    private int cachedStart;
+    private String cachedText;
+
+    public DocumentSnapshot(StyledDocument<?, ?, ?> document) {
+        this.document = document;
+        this.length = document.length();
+        this.paragraphCount = document.getParagraphs().size();
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        if (cachedParagraph < 0 || index < cachedStart) {
+            locate(index);
+        }
+        // 顺序读取时逐段前进
+        advanceTo(index);
+        int offset = index - cachedStart;
+        return offset == cachedText.length() ? LINE_FEED : cachedText.charAt(offset);
+    }
+
+    /**
+     * 按段落顺序遍历指定区间的文本，不产生额外的字符串拷贝
+     *
+     * @param start    起始偏移（包含）
+     * @param end      结束偏移（不包含）
+     * @param consumer 文本片段消费者
+     */
+    public void forEachSegment(int start, int end, Consumer<CharSequence> consumer) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+        }
+        if (start == end) {
+            return;
+        }
+        locate(start);
+        int position = start;
+        while (position < end) {
+            int offset = position - cachedStart;
+            int textEnd = Math.min(cachedText.length(), end - cachedStart);
+            if (offset < textEnd) {
+                consumer.accept(offset == 0 && textEnd == cachedText.length()
+                        ? cachedText : CharBuffer.wrap(cachedText, offset, textEnd));
+                position = cachedStart + textEnd;
+            }
+            if (position < end) {
+                // 段落末尾的换行
+                consumer.accept(LINE_SEPARATOR);
+                position++;
+                moveTo(cachedParagraph + 1, position);
+            }
+        }
+    }
+
+    /**
+     * 遍历整个文档
+     *
+     * @param consumer 文本片段消费者
+     */
+    public void forEachSegment(Consumer<CharSequence> consumer) {
+        forEachSegment(0, length, consumer);
+    }
+
+    private void locate(int index) {
+        TwoDimensional.Position position = document.offsetToPosition(index, TwoDimensional.Bias.Forward);
+        moveTo(position.getMajor(), index - position.getMinor());
+        advanceTo(index);
+    }
+
+    /**
+     * 前进到偏移所在的段落，偏移为段落末尾的换行时停留在该段落
+     *
+     * @param index 不小于当前段落起始偏移的文档偏移
+     */
+    private void advanceTo(int index) {
+        while (index > cachedStart + cachedText.length() && cachedParagraph + 1 < paragraphCount) {
+            moveTo(cachedParagraph + 1, cachedStart + cachedText.length() + 1);
+        }
+    }
+
+    private void moveTo(int paragraph, int start) {
+        Paragraph<?, ?, ?> current = document.getParagraph(paragraph);
+        cachedParagraph = paragraph;
+        cachedStart = start;
+        cachedText = current.getText();
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        StringBuilder builder = new StringBuilder(end - start);
+        forEachSegment(start, end, builder::append);
+        return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+        return subSequence(0, length).toString();
+    }
+}
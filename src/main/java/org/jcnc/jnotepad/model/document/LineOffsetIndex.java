@@ -0,0 +1,294 @@
+package org.jcnc.jnotepad.model.document;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * 文件行偏移索引
+ *
+ * <p>分块顺序读取文件并扫描换行符，每隔固定行数记录一次行首的字节偏移，
+ * 读取任意行时从最近的记录点向后扫描，索引大小约为行数的 1/{@value #ANCHOR_INTERVAL}。</p>
+ *
+ * <p>仅支持换行符编码为单字节 {@code 0x0A} 且不会出现在多字节字符中的编码（如 UTF-8、GBK、ISO-8859-1）。</p>
+ *
+ * @author gewuyou
+ */
+public class LineOffsetIndex implements Closeable {
+    /**
+     * 记录行首偏移的间隔行数
+     */
+    private static final int ANCHOR_INTERVAL = 64;
+    /**
+     * 每扫描多少字节发布一次索引结果
+     */
+    private static final long PUBLISH_INTERVAL_BYTES = 64L * 1024 * 1024;
+    /**
+     * 建立索引时每次读取的字节数
+     */
+    private static final int SCAN_BUFFER_BYTES = 1024 * 1024;
+    /**
+     * 读取行时每次读取的字节数
+     */
+    private static final int READ_BUFFER_BYTES = 64 * 1024;
+    /**
+     * 单次读取窗口的最大字节数，避免超长行占用过多内存
+     */
+    private static final int MAX_WINDOW_BYTES = 4 * 1024 * 1024;
+    private static final byte LINE_FEED = '\n';
+    private static final byte[] UTF_8_BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+    private final Path path;
+    private final Charset charset;
+    private final FileChannel channel;
+    private final long size;
+    /**
+     * 第一行的起始偏移（跳过 BOM）
+     */
+    private final long contentStart;
+    /**
+     * 每 {@value #ANCHOR_INTERVAL} 行的行首偏移
+     */
+    private long[] anchors = new long[1024];
+    private int anchorCount;
+    /**
+     * 已索引的行数
+     */
+    private long lineCount;
+    private volatile boolean complete;
+    private volatile boolean closed;
+
+    private LineOffsetIndex(Path path, Charset charset, FileChannel channel) throws IOException {
+        this.path = path;
+        this.charset = charset;
+        this.channel = channel;
+        this.size = channel.size();
+        this.contentStart = hasUtf8Bom() ? UTF_8_BOM.length : 0;
+        anchors[0] = contentStart;
+        anchorCount = 1;
+        lineCount = 1;
+    }
+
+    /**
+     * 判断编码是否支持按字节扫描换行
+     *
+     * @param charset 编码
+     * @return 是否支持
+     */
+    public static boolean isSupported(Charset charset) {
+        return TextFileDecoder.isStateless(charset)
+                && Arrays.equals("\n".getBytes(charset), new byte[]{LINE_FEED})
+                && Arrays.equals("a".getBytes(charset), new byte[]{'a'});
+    }
+
+    /**
+     * 打开文件，索引需调用 {@link #build(LongConsumer)} 建立
+     *
+     * @param path    文件路径
+     * @param charset 文件编码
+     * @return 行偏移索引
+     * @throws IOException 文件打开失败
+     */
+    public static LineOffsetIndex open(Path path, Charset charset) throws IOException {
+        if (!isSupported(charset)) {
+            throw new IOException("不支持的文件编码: " + charset);
+        }
+        return new LineOffsetIndex(path, charset, FileChannel.open(path, StandardOpenOption.READ));
+    }
+
+    private boolean hasUtf8Bom() throws IOException {
+        if (!StandardCharsets.UTF_8.equals(charset) || size < UTF_8_BOM.length) {
+            return false;
+        }
+        ByteBuffer head = ByteBuffer.allocate(UTF_8_BOM.length);
+        channel.read(head, 0);
+        return Arrays.equals(head.array(), UTF_8_BOM);
+    }
+
+    /**
+     * 建立索引
+     *
+     * <p>耗时操作，应在后台线程中执行。每扫描完一段区域即发布一次结果，期间可以读取已索引的部分。
+     * 文件不做内存映射，索引只持有文件通道，关闭后即不再占用文件（Windows 上映射存在期间文件无法替换或删除）。</p>
+     *
+     * @param progressConsumer 每段扫描完成后回调当前已索引的行数，可为 null
+     * @throws IOException 文件读取失败
+     */
+    public void build(LongConsumer progressConsumer) throws IOException {
+        long[] localAnchors = new long[1024];
+        int localAnchorCount = 1;
+        localAnchors[0] = contentStart;
+        long lines = 1;
+        ByteBuffer buffer = ByteBuffer.allocateDirect(SCAN_BUFFER_BYTES);
+        long position = contentStart;
+        long nextPublish = contentStart + PUBLISH_INTERVAL_BYTES;
+        while (position < size && !closed) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) != LINE_FEED) {
+                    continue;
+                }
+                if (lines % ANCHOR_INTERVAL == 0) {
+                    if (localAnchorCount == localAnchors.length) {
+                        localAnchors = Arrays.copyOf(localAnchors, localAnchors.length * 2);
+                    }
+                    localAnchors[localAnchorCount++] = position + i + 1;
+                }
+                lines++;
+            }
+            position += read;
+            if (position >= nextPublish) {
+                nextPublish = position + PUBLISH_INTERVAL_BYTES;
+                publish(localAnchors, localAnchorCount, lines, progressConsumer);
+            }
+        }
+        publish(localAnchors, localAnchorCount, lines, progressConsumer);
+        complete = !closed;
+    }
+
+    private void publish(long[] newAnchors, int newAnchorCount, long newLineCount, LongConsumer progressConsumer) {
+        publish(newAnchors, newAnchorCount, newLineCount);
+        if (progressConsumer != null) {
+            progressConsumer.accept(newLineCount);
+        }
+    }
+
+    private synchronized void publish(long[] newAnchors, int newAnchorCount, long newLineCount) {
+        if (anchors.length < newAnchorCount) {
+            anchors = Arrays.copyOf(newAnchors, newAnchors.length);
+        } else {
+            System.arraycopy(newAnchors, anchorCount, anchors, anchorCount, newAnchorCount - anchorCount);
+        }
+        anchorCount = newAnchorCount;
+        lineCount = newLineCount;
+    }
+
+    /**
+     * 读取从指定行开始的若干行
+     *
+     * @param firstLine 起始行（从 0 开始）
+     * @param count     行数
+     * @return 以 {@code \n} 分隔的文本，不含末尾换行
+     * @throws IOException 文件读取失败
+     */
+    public String readLines(long firstLine, int count) throws IOException {
+        long start = lineStartOffset(firstLine);
+        if (start < 0 || count <= 0) {
+            return "";
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_BYTES);
+        long position = start;
+        int lines = 0;
+        while (position < size && out.size() < MAX_WINDOW_BYTES) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            int end = 0;
+            while (end < read && lines < count) {
+                if (buffer.get(end++) == LINE_FEED) {
+                    lines++;
+                }
+            }
+            out.write(buffer.array(), 0, end);
+            position += end;
+            if (lines == count) {
+                break;
+            }
+        }
+        String text = TextFileDecoder.normalizeLineSeparators(out.toString(charset));
+        return text.endsWith("\n") ? text.substring(0, text.length() - 1) : text;
+    }
+
+    /**
+     * 获取指定行的行首字节偏移
+     *
+     * @param line 行（从 0 开始）
+     * @return 行首偏移，行不存在时返回 -1
+     * @throws IOException 文件读取失败
+     */
+    public long lineStartOffset(long line) throws IOException {
+        long anchor;
+        synchronized (this) {
+            if (line < 0 || line >= lineCount) {
+                return -1;
+            }
+            anchor = anchors[(int) (line / ANCHOR_INTERVAL)];
+        }
+        int remaining = (int) (line % ANCHOR_INTERVAL);
+        if (remaining == 0) {
+            return anchor;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_BYTES);
+        long position = anchor;
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == LINE_FEED && --remaining == 0) {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return -1;
+    }
+
+    /**
+     * 获取已索引的行数
+     *
+     * @return 行数
+     */
+    public synchronized long getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * 索引是否已建立完成
+     *
+     * @return 是否完成
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public Charset getCharset() {
+        return charset;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * 关闭文件，正在进行的索引建立会尽快结束
+     *
+     * @throws IOException 关闭失败
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        channel.close();
+    }
+}
@@ -0,0 +1,169 @@
+package org.jcnc.jnotepad.model.document;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * 文本文件流式解码
+ *
+ * <p>文件只顺序解码一遍，解码结果按固定字符数拆分为文本块依次交给调用方，自身不保留任何文本，
+ * 打开文件时堆内存中只有文本域的一份文本。</p>
+ *
+ * <p>换行符规范化为 {@code \n}（{@code \r\n} 与单独的 {@code \r} 均视为一个换行），与 RichTextFX 文本域中的字符偏移保持一致。
+ * 解码使用的缓冲区每个线程一组，重复打开文件时复用。</p>
+ *
+ * @author gewuyou
+ */
+public class TextFileDecoder {
+    /**
+     * 每个文本块的字符数
+     */
+    private static final int CHUNK_CHARS = 256 * 1024;
+    /**
+     * 每次从文件读取的字节数
+     */
+    private static final int READ_BYTES = 64 * 1024;
+    /**
+     * 解码依赖前文状态的编码，无法从文件中间开始解码
+     */
+    private static final Set<String> STATEFUL_CHARSETS = Set.of("UTF-16", "UTF-32", "ISO-2022-JP", "ISO-2022-KR", "ISO-2022-CN");
+    /**
+     * 每个线程复用的解码缓冲区
+     */
+    private static final ThreadLocal<DecodeBuffers> BUFFERS = ThreadLocal.withInitial(DecodeBuffers::new);
+
+    private TextFileDecoder() {
+    }
+
+    /**
+     * 判断编码是否可以从文件中间的任意位置开始解码
+     *
+     * @param charset 编码
+     * @return 解码不依赖前文状态时返回 true
+     */
+    public static boolean isStateless(Charset charset) {
+        return !STATEFUL_CHARSETS.contains(charset.name());
+    }
+
+    /**
+     * 将换行符统一为 {@code \n}
+     *
+     * @param text 文本
+     * @return 规范化后的文本
+     */
+    public static String normalizeLineSeparators(String text) {
+        return text.replace("\r\n", "\n").replace('\r', '\n');
+    }
+
+    /**
+     * 流式解码整个文件
+     *
+     * @param path          文件路径
+     * @param charset       文件编码
+     * @param chunkConsumer 每解码出一个文本块时调用
+     * @return 解码的字节数
+     * @throws IOException 文件读取失败
+     */
+    public static long decode(Path path, Charset charset, Consumer<String> chunkConsumer) throws IOException {
+        DecodeBuffers buffers = BUFFERS.get();
+        ByteBuffer bytes = buffers.bytes;
+        CharBuffer chars = buffers.chars;
+        bytes.clear();
+        chars.clear();
+        buffers.pending.setLength(0);
+        buffers.previousCr = false;
+        CharsetDecoder decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        long byteLength = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            boolean endOfInput = false;
+            while (!endOfInput) {
+                int read = channel.read(bytes);
+                endOfInput = read < 0;
+                byteLength += Math.max(read, 0);
+                bytes.flip();
+                CoderResult result;
+                do {
+                    result = decoder.decode(bytes, chars, endOfInput);
+                    buffers.drain(chunkConsumer, false);
+                } while (result.isOverflow());
+                bytes.compact();
+            }
+            while (decoder.flush(chars).isOverflow()) {
+                buffers.drain(chunkConsumer, false);
+            }
+            buffers.drain(chunkConsumer, true);
+        } finally {
+            // 读取失败或取消时丢弃未交出的字符
+            buffers.pending.setLength(0);
+        }
+        return byteLength;
+    }
+
+    /**
+     * 解码缓冲区
+     */
+    private static class DecodeBuffers {
+        private final ByteBuffer bytes = ByteBuffer.allocateDirect(READ_BYTES);
+        private final CharBuffer chars = CharBuffer.allocate(READ_BYTES);
+        /**
+         * 尚未凑满一个文本块的字符
+         */
+        private final StringBuilder pending = new StringBuilder(CHUNK_CHARS + READ_BYTES);
+        /**
+         * 上一段解码结果是否以 {@code \r} 结尾
+         */
+        private boolean previousCr;
+
+        /**
+         * 将字符缓冲区中的解码结果规范化后移入待拆分的文本，凑满的文本块交给消费者
+         *
+         * @param consumer 文本块消费者
+         * @param last     是否已解码完整个文件
+         */
+        private void drain(Consumer<String> consumer, boolean last) {
+            chars.flip();
+            char[] array = chars.array();
+            int end = chars.limit();
+            int runStart = 0;
+            for (int i = 0; i < end; i++) {
+                char c = array[i];
+                if (c == '\r') {
+                    pending.append(array, runStart, i - runStart).append('\n');
+                    runStart = i + 1;
+                    previousCr = true;
+                } else {
+                    if (c == '\n' && previousCr) {
+                        // 跳过 \r\n 中的 \n
+                        pending.append(array, runStart, i - runStart);
+                        runStart = i + 1;
+                    }
+                    previousCr = false;
+                }
+            }
+            pending.append(array, runStart, end - runStart);
+            chars.clear();
+            while (pending.length() >= CHUNK_CHARS) {
+                // 不拆开代理对
+                int length = Character.isHighSurrogate(pending.charAt(CHUNK_CHARS - 1)) ? CHUNK_CHARS - 1 : CHUNK_CHARS;
+                consumer.accept(pending.substring(0, length));
+                pending.delete(0, length);
+            }
+            if (last && !pending.isEmpty()) {
+                consumer.accept(pending.toString());
+                pending.setLength(0);
+            }
+        }
+    }
+}
@@ -3,6 +3,8 @@ package org.jcnc.jnotepad.model.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * 缓存类
  *
@@ -34,9 +36,19 @@ public class Cache {
      */
     private Long expirationTime;
     /**
-     * 上次读或写时间
+     * 上次读或写时间，读取缓存时不加锁直接更新
+     */
+    private volatile Long lastReadOrWriteTime;
+    /**
+     * 本次运行中的访问次数，用于按访问频率淘汰
      */
-    private Long lastReadOrWriteTime;
+    @JsonIgnore
+    private final LongAdder accessCount = new LongAdder();
+    /**
+     * 缓存数据占用的字节数，由缓存管理类在加入时计算，用于按大小淘汰
+     */
+    @JsonIgnore
+    private volatile long weight;
 
     public Cache() {
 
@@ -51,6 +63,43 @@ public class Cache {
         this.lastReadOrWriteTime = System.currentTimeMillis();
     }
 
+    /**
+     * 记录一次访问，更新读写时间与访问次数
+     *
+     * @param time 访问时间
+     */
+    public void recordAccess(long time) {
+        lastReadOrWriteTime = time;
+        accessCount.increment();
+    }
+
+    /**
+     * 判断缓存是否已过期
+     *
+     * @param time 当前时间
+     * @return 是否已过期，永不过期的缓存始终返回 false
+     */
+    @JsonIgnore
+    public boolean isExpired(long time) {
+        return expirationTime != null && expirationTime >= 0 && lastReadOrWriteTime != null
+                && lastReadOrWriteTime + expirationTime <= time;
+    }
+
+    @JsonIgnore
+    public long getAccessCount() {
+        return accessCount.sum();
+    }
+
+    @JsonIgnore
+    public long getWeight() {
+        return weight;
+    }
+
+    @JsonIgnore
+    public void setWeight(long weight) {
+        this.weight = weight;
+    }
+
     /**
      * 生成缓存key
      *
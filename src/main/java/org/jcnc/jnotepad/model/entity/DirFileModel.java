@@ -1,41 +1,30 @@
 package org.jcnc.jnotepad.model.entity;
 
-import org.kordamp.ikonli.javafx.FontIcon;
-
-import java.util.List;
-
-
 /**
  * 文件夹实体类
  *
- * <p>用于存储文件夹结构</p>
+ * <p>用于存储文件树中的一个文件或文件夹，文件夹的子项在展开时才读取</p>
  *
  * @author cccqyu
  */
 public class DirFileModel {
     private String path;
     private String name;
-
-    private FontIcon iconIsNotSelected;
-
-    private FontIcon iconIsSelected;
-
-    private List<DirFileModel> childFile;
-
-
-    public DirFileModel(String path, String name, List<DirFileModel> childFile, FontIcon iconIsNotSelected, FontIcon iconIsSelected) {
+    /**
+     * 是否为文件夹
+     */
+    private boolean directory;
+    /**
+     * 是否为折叠了文件夹其余子项的"显示更多"项，此时路径为所在文件夹
+     */
+    private boolean moreEntries;
+
+    public DirFileModel(String path, String name, boolean directory) {
         this.path = path;
         this.name = name;
-        this.childFile = childFile;
-        this.iconIsNotSelected = iconIsNotSelected;
-        this.iconIsSelected = iconIsSelected;
+        this.directory = directory;
     }
 
-
-    public List<DirFileModel> getChildFile() {
-        return childFile;
-    }
-    
     public String getPath() {
         return path;
     }
@@ -52,28 +41,24 @@ public class DirFileModel {
         this.name = name;
     }
 
-    @Override
-    public String toString() {
-        return name;
+    public boolean isDirectory() {
+        return directory;
     }
 
-    public FontIcon getIconIsNotSelected() {
-        return iconIsNotSelected;
+    public void setDirectory(boolean directory) {
+        this.directory = directory;
     }
 
-    public void setIconIsNotSelected(FontIcon iconIsNotSelected) {
-        this.iconIsNotSelected = iconIsNotSelected;
+    public boolean isMoreEntries() {
+        return moreEntries;
     }
 
-    public FontIcon getIconIsSelected() {
-        return iconIsSelected;
+    public void setMoreEntries(boolean moreEntries) {
+        this.moreEntries = moreEntries;
     }
 
-    public void setIconIsSelected(FontIcon iconIsSelected) {
-        this.iconIsSelected = iconIsSelected;
-    }
-
-    public void setChildFile(List<DirFileModel> childFile) {
-        this.childFile = childFile;
+    @Override
+    public String toString() {
+        return name;
     }
-}
\ No newline at end of file
+}
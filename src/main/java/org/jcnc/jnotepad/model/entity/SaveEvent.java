@@ -0,0 +1,66 @@
+package org.jcnc.jnotepad.model.entity;
+
+import java.nio.file.Path;
+
+/**
+ * 文件保存事件
+ *
+ * <p>每次保存结束后产生，记录写入的字节数、耗时以及失败原因。</p>
+ *
+ * @author gewuyou
+ */
+public class SaveEvent {
+    private static final double NANOS_PER_SECOND = 1_000_000_000D;
+    /**
+     * 保存的目标文件
+     */
+    private final Path path;
+    /**
+     * 写入的字节数，失败时为已写入的部分
+     */
+    private final long bytes;
+    /**
+     * 保存耗时（纳秒）
+     */
+    private final long elapsedNanos;
+    /**
+     * 失败原因，成功时为 null
+     */
+    private final Throwable error;
+
+    public SaveEvent(Path path, long bytes, long elapsedNanos, Throwable error) {
+        this.path = path;
+        this.bytes = bytes;
+        this.elapsedNanos = elapsedNanos;
+        this.error = error;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public Throwable getError() {
+        return error;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * 获取写入吞吐量
+     *
+     * @return 每秒写入的字节数
+     */
+    public double getBytesPerSecond() {
+        return elapsedNanos <= 0 ? 0 : bytes * NANOS_PER_SECOND / elapsedNanos;
+    }
+}
@@ -0,0 +1,37 @@
+package org.jcnc.jnotepad.model.enums;
+
+import org.jcnc.jnotepad.model.entity.Cache;
+
+import java.util.Comparator;
+
+/**
+ * 缓存淘汰策略枚举
+ *
+ * <p>缓存数量超过上限时，按策略的顺序优先淘汰排在前面的缓存。</p>
+ *
+ * @author gewuyou
+ */
+public enum CacheEvictionPolicy {
+    /**
+     * 淘汰最久未访问的缓存
+     */
+    LRU(Comparator.comparingLong(CacheEvictionPolicy::lastAccessTime)),
+    /**
+     * 淘汰访问次数最少的缓存，次数相同时淘汰最久未访问的缓存
+     */
+    LFU(Comparator.comparingLong(Cache::getAccessCount).thenComparingLong(CacheEvictionPolicy::lastAccessTime));
+    private final Comparator<Cache> evictionOrder;
+
+    CacheEvictionPolicy(Comparator<Cache> evictionOrder) {
+        this.evictionOrder = evictionOrder;
+    }
+
+    public Comparator<Cache> getEvictionOrder() {
+        return evictionOrder;
+    }
+
+    private static long lastAccessTime(Cache cache) {
+        Long time = cache.getLastReadOrWriteTime();
+        return time == null ? 0 : time;
+    }
+}
@@ -0,0 +1,17 @@
+package org.jcnc.jnotepad.model.enums;
+
+/**
+ * 缓存存储类型枚举
+ *
+ * @author gewuyou
+ */
+public enum CacheStoreType {
+    /**
+     * 所有缓存保存在一个追加写入的日志文件中
+     */
+    LOG,
+    /**
+     * 每个命名空间一个文件夹，每个缓存组一个 JSON 文件
+     */
+    JSON
+}
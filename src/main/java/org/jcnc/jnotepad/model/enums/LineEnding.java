@@ -0,0 +1,68 @@
+package org.jcnc.jnotepad.model.enums;
+
+/**
+ * 换行符枚举
+ *
+ * <p>文档内部统一使用 {@code \n}，保存时再转换为文件原有的换行符。</p>
+ *
+ * @author gewuyou
+ */
+public enum LineEnding {
+    /**
+     * Unix 换行符
+     */
+    LF("\n"),
+    /**
+     * Windows 换行符
+     */
+    CRLF("\r\n"),
+    /**
+     * 旧版 Mac 换行符
+     */
+    CR("\r");
+    /**
+     * 检测时最多统计的换行符数量
+     */
+    private static final int MAX_SAMPLED_LINE_BREAKS = 1000;
+    private final String value;
+
+    LineEnding(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * 检测未规范化文本中使用最多的换行符
+     *
+     * @param text 未规范化的文本，通常为文件开头的一段
+     * @return 换行符，没有换行时返回 {@link #LF}
+     */
+    public static LineEnding detect(CharSequence text) {
+        int lf = 0;
+        int crlf = 0;
+        int cr = 0;
+        for (int i = 0; i < text.length() && lf + crlf + cr < MAX_SAMPLED_LINE_BREAKS; i++) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                lf++;
+            } else if (c == '\r') {
+                if (i + 1 < text.length() && text.charAt(i + 1) == '\n') {
+                    crlf++;
+                    i++;
+                } else {
+                    cr++;
+                }
+            }
+        }
+        if (crlf > lf && crlf >= cr) {
+            return CRLF;
+        }
+        if (cr > lf && cr > crlf) {
+            return CR;
+        }
+        return LF;
+    }
+}
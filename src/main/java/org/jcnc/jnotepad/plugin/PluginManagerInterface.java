@@ -37,6 +37,7 @@ public class PluginManagerInterface {
      *
      * @param primaryStage JavaFX的主舞台
      */
+    @SuppressWarnings("deprecation")
     public void start(Stage primaryStage) {
         PluginManager pluginManager = PluginManager.getInstance();
 
@@ -0,0 +1,59 @@
+package org.jcnc.jnotepad.plugin.manager;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.jcnc.jnotepad.api.core.manager.AbstractCacheManager;
+import org.jcnc.jnotepad.controller.config.UserConfigController;
+import org.jcnc.jnotepad.model.entity.Cache;
+import org.jcnc.jnotepad.model.enums.CacheEvictionPolicy;
+import org.jcnc.jnotepad.util.JsonUtil;
+
+/**
+ * 插件缓存管理类
+ *
+ * <p>每个插件一个，命名空间为插件id。缓存数量与数据大小分别受配置的上限限制，超出时按淘汰策略淘汰该插件自己的缓存。</p>
+ *
+ * @author gewuyou
+ */
+public class PluginCacheManager extends AbstractCacheManager {
+    private final String pluginId;
+
+    PluginCacheManager(String pluginId) {
+        this.pluginId = pluginId;
+    }
+
+    @Override
+    public String getGlobalNamespace() {
+        return pluginId;
+    }
+
+    @Override
+    protected int getMaxEntries(String namespace) {
+        return UserConfigController.getInstance().getPluginCacheMaxEntries();
+    }
+
+    @Override
+    protected long getMaxBytes(String namespace) {
+        return UserConfigController.getInstance().getPluginCacheMaxBytes();
+    }
+
+    @Override
+    protected CacheEvictionPolicy getEvictionPolicy() {
+        return UserConfigController.getInstance().getCacheEvictionPolicy();
+    }
+
+    /**
+     * 按缓存数据序列化后的长度计算大小，与写入本地时占用的空间一致
+     *
+     * @param cache 缓存
+     * @return 字节数
+     */
+    @Override
+    protected long weigh(Cache cache) {
+        try {
+            return JsonUtil.OBJECT_MAPPER.writeValueAsBytes(cache.getCacheData()).length;
+        } catch (JsonProcessingException e) {
+            // 无法序列化的缓存也无法写入本地，按超出上限处理
+            return Long.MAX_VALUE;
+        }
+    }
+}
@@ -1,8 +1,13 @@
 package org.jcnc.jnotepad.plugin.manager;
 
 import org.jcnc.jnotepad.app.manager.ApplicationManager;
+import org.jcnc.jnotepad.common.manager.ApplicationCacheManager;
+import org.jcnc.jnotepad.common.manager.LanguageGrammarManager;
 import org.jcnc.jnotepad.common.manager.ThreadPoolManager;
+import org.jcnc.jnotepad.component.module.highlight.LanguageGrammar;
+import org.jcnc.jnotepad.controller.cache.CacheController;
 import org.jcnc.jnotepad.controller.config.PluginConfigController;
+import org.jcnc.jnotepad.controller.exception.AppException;
 import org.jcnc.jnotepad.model.entity.PluginDescriptor;
 import org.jcnc.jnotepad.util.LogUtil;
 import org.jcnc.jnotepad.util.PopUpUtil;
@@ -16,6 +21,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 
 import static org.jcnc.jnotepad.plugin.PluginLoader.readPlugin;
@@ -34,6 +40,10 @@ public class PluginManager {
      * 插件类别
      */
     private final Map<String, List<String>> categories = new HashMap<>();
+    /**
+     * 插件缓存管理类，键为插件id，插件第一次获取时创建
+     */
+    private final Map<String, PluginCacheManager> cacheManagers = new ConcurrentHashMap<>(16);
     /**
      * 插件信息
      */
@@ -136,6 +146,7 @@ public class PluginManager {
      * 执行加载的插件
      * @deprecated 待删除
      */
+    @Deprecated
     public void executePlugins() {
         for (PluginDescriptor pluginDescriptor : pluginDescriptors) {
             if (pluginDescriptor.isEnabled()) {
@@ -155,6 +166,42 @@ public class PluginManager {
         }
     }
 
+    /**
+     * 注册插件提供的语言语法
+     *
+     * @param languageGrammar 语言语法
+     * @apiNote 插件应在 {@link org.jcnc.jnotepad.plugin.interfaces.Plugin#initialize()} 中调用，
+     * 之后打开的对应扩展名的文件会使用该语法高亮
+     */
+    public void registerLanguageGrammar(LanguageGrammar languageGrammar) {
+        LanguageGrammarManager.getInstance().registerGrammar(languageGrammar);
+        logger.info("已注册语言语法: {}", languageGrammar.getName());
+    }
+
+    /**
+     * 获取插件的缓存管理类
+     *
+     * @param pluginId 插件id
+     * @return 插件的缓存管理类，命名空间为插件id
+     * @apiNote 插件的缓存在第一次获取时才打开，保存在单独的文件中，数量与大小受用户配置的上限限制
+     */
+    public PluginCacheManager getCacheManager(String pluginId) {
+        PluginCacheManager cacheManager = cacheManagers.get(pluginId);
+        if (cacheManager != null) {
+            return cacheManager;
+        }
+        if (pluginId == null || pluginId.isBlank()
+                || pluginId.equals(ApplicationCacheManager.getInstance().getGlobalNamespace())
+                || pluginDescriptors.stream().noneMatch(pluginDescriptor -> pluginId.equals(pluginDescriptor.getId()))) {
+            throw new AppException("未加载的插件不能使用缓存: " + pluginId);
+        }
+        return cacheManagers.computeIfAbsent(pluginId, id -> {
+            PluginCacheManager manager = new PluginCacheManager(id);
+            CacheController.getInstance().openPluginCache(id, manager);
+            return manager;
+        });
+    }
+
     /**
      * 获取按类别分类的已加载插件
      *
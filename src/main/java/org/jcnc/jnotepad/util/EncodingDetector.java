@@ -4,15 +4,21 @@ import com.ibm.icu.text.CharsetDetector;
 import com.ibm.icu.text.CharsetMatch;
 import org.slf4j.Logger;
 
-import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * 编码检测工具类
  *
- * <p>该工具类用于检测文本文件的编码类型。</p>
+ * <p>该工具类用于检测文本文件的编码类型。只读取文件开头的一段内容：带 BOM 的文件直接由 BOM 确定编码，
+ * 纯 ASCII 或合法的 UTF-8 内容不经过 ICU 直接判定为 UTF-8，其余情况再交给 ICU 检测。
+ * 检测结果按文件路径、大小与修改时间缓存。</p>
  *
  * @author 许轲
  */
@@ -22,6 +28,23 @@ public class EncodingDetector {
      */
     public static final int THRESHOLD_CONFIDENCE = 50;
     private static final Logger LOG = LogUtil.getLogger(EncodingDetector.class);
+    /**
+     * 参与检测的文件开头字节数
+     */
+    private static final int SAMPLE_SIZE = 64 * 1024;
+    /**
+     * 缓存的检测结果数量上限
+     */
+    private static final int MAX_CACHE_ENTRIES = 256;
+    /**
+     * 文件路径到检测结果的缓存，按访问顺序淘汰
+     */
+    private static final Map<String, DetectionResult> CACHE = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, DetectionResult> eldest) {
+            return size() > MAX_CACHE_ENTRIES;
+        }
+    };
 
     private EncodingDetector() {
     }
@@ -30,33 +53,30 @@ public class EncodingDetector {
      * 检测文本编码。
      *
      * @param file 要检测的文件
-     * @return 字符串表示的编码，如果检测失败则返回 "UNKNOWN"
+     * @return 字符串表示的编码，如果检测失败则返回 null
      */
     public static String detectEncoding(File file) {
-        CharsetDetector charsetDetector = new CharsetDetector();
-        try (BufferedInputStream inputStream = new BufferedInputStream(new FileInputStream(file.getPath()))) {
-            charsetDetector.setText(inputStream);
-            CharsetMatch[] matchList = charsetDetector.detectAll();
-            if (matchList == null || matchList.length == 0) {
-                return null;
+        String path = file.getAbsolutePath();
+        long size = file.length();
+        long lastModified = file.lastModified();
+        synchronized (CACHE) {
+            DetectionResult cached = CACHE.get(path);
+            if (cached != null && cached.size == size && cached.lastModified == lastModified) {
+                return cached.encoding;
             }
-            CharsetMatch maxConfidence = matchList[0];
-            if (maxConfidence.getConfidence() < THRESHOLD_CONFIDENCE) {
-                return null;
-            }
-            for (int i = 1; i < matchList.length; i++) {
-                CharsetMatch match = matchList[i];
-                LOG.debug("{} : {}", match.getName(), match.getConfidence());
-                if (match.getConfidence() >= THRESHOLD_CONFIDENCE && match.getConfidence() >= maxConfidence.getConfidence()) {
-                    maxConfidence = match;
-                } else {
-                    return maxConfidence.getName();
-                }
-            }
-        } catch (Exception e) {
+        }
+        byte[] sample;
+        try (InputStream inputStream = Files.newInputStream(file.toPath())) {
+            sample = inputStream.readNBytes(SAMPLE_SIZE);
+        } catch (IOException e) {
             LOG.error("", e);
+            return null;
         }
-        return null;
+        String encoding = detectEncoding(sample, sample.length < size);
+        synchronized (CACHE) {
+            CACHE.put(path, new DetectionResult(size, lastModified, encoding));
+        }
+        return encoding;
     }
 
     /**
@@ -75,4 +95,147 @@ public class EncodingDetector {
             return Charset.defaultCharset();
         }
     }
+
+    /**
+     * 检测文件开头内容的编码
+     *
+     * @param sample    文件开头内容
+     * @param truncated 文件是否比样本更长
+     * @return 编码名称，检测失败时返回 null
+     */
+    private static String detectEncoding(byte[] sample, boolean truncated) {
+        String bomEncoding = detectBom(sample);
+        if (bomEncoding != null) {
+            return bomEncoding;
+        }
+        if (isUtf8(sample, truncated)) {
+            return StandardCharsets.UTF_8.name();
+        }
+        CharsetDetector charsetDetector = new CharsetDetector();
+        charsetDetector.setText(sample);
+        CharsetMatch[] matchList = charsetDetector.detectAll();
+        if (matchList == null || matchList.length == 0) {
+            return null;
+        }
+        CharsetMatch maxConfidence = matchList[0];
+        if (maxConfidence.getConfidence() < THRESHOLD_CONFIDENCE) {
+            return null;
+        }
+        for (int i = 1; i < matchList.length; i++) {
+            CharsetMatch match = matchList[i];
+            LOG.debug("{} : {}", match.getName(), match.getConfidence());
+            if (match.getConfidence() >= THRESHOLD_CONFIDENCE && match.getConfidence() >= maxConfidence.getConfidence()) {
+                maxConfidence = match;
+            } else {
+                break;
+            }
+        }
+        return maxConfidence.getName();
+    }
+
+    /**
+     * 根据 BOM 判断编码
+     *
+     * @param sample 文件开头内容
+     * @return 编码名称，没有 BOM 时返回 null
+     */
+    private static String detectBom(byte[] sample) {
+        if (startsWith(sample, 0xEF, 0xBB, 0xBF)) {
+            return StandardCharsets.UTF_8.name();
+        }
+        // UTF-32LE 的 BOM 以 UTF-16LE 的 BOM 开头，需要先判断
+        if (startsWith(sample, 0xFF, 0xFE, 0x00, 0x00)) {
+            return "UTF-32LE";
+        }
+        if (startsWith(sample, 0x00, 0x00, 0xFE, 0xFF)) {
+            return "UTF-32BE";
+        }
+        if (startsWith(sample, 0xFF, 0xFE)) {
+            return StandardCharsets.UTF_16LE.name();
+        }
+        if (startsWith(sample, 0xFE, 0xFF)) {
+            return StandardCharsets.UTF_16BE.name();
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] sample, int... prefix) {
+        if (sample.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if ((sample[i] & 0xFF) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 判断内容是否为纯 ASCII 或合法的 UTF-8
+     *
+     * @param sample    文件开头内容
+     * @param truncated 文件是否比样本更长，为 true 时允许末尾的多字节字符不完整
+     * @return 是否为 UTF-8
+     */
+    private static boolean isUtf8(byte[] sample, boolean truncated) {
+        int i = 0;
+        while (i < sample.length) {
+            int b = sample[i] & 0xFF;
+            // NUL 字节说明是二进制文件或 UTF-16 等双字节编码
+            if (b < 0x80) {
+                if (b == 0) {
+                    return false;
+                }
+                i++;
+                continue;
+            }
+            int length;
+            int min;
+            if (b >= 0xC2 && b <= 0xDF) {
+                length = 2;
+                min = 0x80;
+            } else if (b >= 0xE0 && b <= 0xEF) {
+                length = 3;
+                min = 0x800;
+            } else if (b >= 0xF0 && b <= 0xF4) {
+                length = 4;
+                min = 0x10000;
+            } else {
+                return false;
+            }
+            if (i + length > sample.length) {
+                return truncated;
+            }
+            int codePoint = b & (0xFF >> (length + 1));
+            for (int j = 1; j < length; j++) {
+                int next = sample[i + j] & 0xFF;
+                if ((next & 0xC0) != 0x80) {
+                    return false;
+                }
+                codePoint = (codePoint << 6) | (next & 0x3F);
+            }
+            // 拒绝过长编码、代理区与超出 Unicode 范围的码点
+            if (codePoint < min || codePoint > 0x10FFFF || (codePoint >= 0xD800 && codePoint <= 0xDFFF)) {
+                return false;
+            }
+            i += length;
+        }
+        return true;
+    }
+
+    /**
+     * 缓存的检测结果
+     */
+    private static class DetectionResult {
+        private final long size;
+        private final long lastModified;
+        private final String encoding;
+
+        private DetectionResult(long size, long lastModified, String encoding) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.encoding = encoding;
+        }
+    }
 }
@@ -1,30 +1,36 @@
 package org.jcnc.jnotepad.util;
 
-import org.jcnc.jnotepad.controller.event.handler.menuitem.OpenFile;
 import org.jcnc.jnotepad.controller.exception.AppException;
 import org.jcnc.jnotepad.model.entity.DirFileModel;
-import org.kordamp.ikonli.javafx.FontIcon;
+import org.jcnc.jnotepad.model.enums.LineEnding;
 
 import java.io.*;
 import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Set;
 
-import static org.kordamp.ikonli.antdesignicons.AntDesignIconsFilled.*;
-
 /**
  * 文件工具
  *
  * @author gewuyou
  */
 public class FileUtil {
+    /**
+     * 检测换行符时读取的字节数
+     */
+    private static final int DECODE_BUFFER_SIZE = 64 * 1024;
     private static final MessageDigest MESSAGE_DIGEST_SHA_256;
     private static final int BUFFER_SIZE = 8192;
 
@@ -102,41 +108,36 @@ public class FileUtil {
     }
 
     /**
-     * 获取文件中的文本内容。
-     *
-     * @param file 文件对象
-     * @return 文本内容
-     */
-    public static String getFileText(File file) {
-        return getFileText(file, EncodingDetector.detectEncodingCharset(file));
-    }
-
-
-    /**
-     * 获取文件中的文本内容。
+     * 检测文件使用的换行符，只读取文件开头的一段内容
      *
-     * @param file     文件对象
+     * @param path     文件路径
      * @param encoding 文件编码
-     * @return 文本内容
+     * @return 换行符
+     * @throws IOException 文件读取失败
      */
-    public static String getFileText(File file, Charset encoding) {
-        StringBuilder stringBuilder = new StringBuilder();
-        try (BufferedReader reader = new BufferedReader(new FileReader(file, encoding))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                if (!stringBuilder.isEmpty()) {
-                    stringBuilder.append("\n");
-                }
-                stringBuilder.append(line);
-            }
-        } catch (IOException ignored) {
-            LogUtil.getLogger(OpenFile.class).info("已忽视IO异常!");
+    public static LineEnding detectLineEnding(Path path, Charset encoding) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate(DECODE_BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            int read;
+            do {
+                read = channel.read(bytes);
+            } while (read >= 0 && bytes.hasRemaining());
         }
-        return stringBuilder.toString();
+        bytes.flip();
+        CharBuffer chars = CharBuffer.allocate((int) Math.ceil(bytes.remaining() * (double) encoding.newDecoder().maxCharsPerByte()) + 1);
+        newDecoder(encoding).decode(bytes, chars, false);
+        chars.flip();
+        return LineEnding.detect(chars);
+    }
+
+    private static CharsetDecoder newDecoder(Charset encoding) {
+        return encoding.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
     }
 
     /**
-     * 将文件夹转为DirFileModel
+     * 将文件夹转为DirFileModel，子项在文件树中展开时才读取
      *
      * @param file 文件
      * @return DirFileModel 存储文件夹与文件关系的实体类
@@ -145,22 +146,17 @@ public class FileUtil {
         if (!file.exists()) {
             return null;
         }
+        return new DirFileModel(file.getAbsolutePath(), file.getName(), file.isDirectory());
+    }
 
-        DirFileModel dirFileModel = new DirFileModel(file.getAbsolutePath(), file.getName(), new ArrayList<>(), new FontIcon(FOLDER), new FontIcon(FOLDER_OPEN));
-
-        File[] files = file.listFiles();
-        if (files != null) {
-            for (File f : files) {
-                if (f.isDirectory()) {
-                    DirFileModel childDirFileModel = getDirFileModel(f);
-                    dirFileModel.getChildFile().add(childDirFileModel);
-                } else {
-                    // todo 在此监测文件后缀，设置对应的图标
-                    dirFileModel.getChildFile().add(new DirFileModel(f.getAbsolutePath(), f.getName(), null, new FontIcon(FILE), new FontIcon(FILE)));
-                }
-            }
-        }
-        return dirFileModel;
+    /**
+     * 按文件树的显示顺序排序，文件夹在前，同类按名称排序
+     *
+     * @param models 文件夹的直接子项
+     */
+    public static void sortDirFileModels(List<DirFileModel> models) {
+        models.sort(Comparator.comparing(DirFileModel::isDirectory).reversed()
+                .thenComparing(DirFileModel::getName, String.CASE_INSENSITIVE_ORDER));
     }
 
     /**
@@ -1,6 +1,6 @@
 package org.jcnc.jnotepad.views.manager;
 
-import javafx.beans.value.ChangeListener;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.Label;
@@ -10,6 +10,8 @@ import org.jcnc.jnotepad.common.constants.TextConstants;
 import org.jcnc.jnotepad.component.module.TextCodeArea;
 import org.jcnc.jnotepad.views.root.bottom.status.BottomStatusBox;
 import org.jcnc.jnotepad.views.root.center.main.center.tab.CenterTab;
+import org.reactfx.EventStreams;
+import org.reactfx.Subscription;
 
 import java.nio.charset.Charset;
 
@@ -26,6 +28,18 @@ public class BottomStatusBoxManager {
     private static final String STATUS_LABEL_FORMAT = "%s : %d \t%s: %d \t%s: %d \t";
 
     private String style = "-fx-background-color: rgba(43,43,43,0.12);";
+    /**
+     * 是否已有等待执行的状态栏更新
+     */
+    private boolean statusUpdatePending;
+    /**
+     * 状态栏当前绑定的标签页
+     */
+    private CenterTab boundTab;
+    /**
+     * 对绑定标签页的订阅，切换标签页时取消
+     */
+    private Subscription boundTabSubscription;
 
     public static BottomStatusBoxManager getInstance() {
         return INSTANCE;
@@ -57,6 +71,11 @@ public class BottomStatusBoxManager {
      * 注册下方状态栏
      */
     public void registerBottomStatusBox() {
+        Label directoryScanLabel = BOTTOM_STATUS_BOX.getDirectoryScanLabel();
+        directoryScanLabel.managedProperty().bind(directoryScanLabel.visibleProperty());
+        directoryScanLabel.setVisible(false);
+        registerChildrenByLabel(directoryScanLabel);
+
         Label statusLabel = BOTTOM_STATUS_BOX.getStatusLabel();
         registerChildrenByLabel(statusLabel);
         statusLabel.setText(getStatusBarFormattedText(0, 0, 1));
@@ -98,6 +117,45 @@ public class BottomStatusBoxManager {
         BOTTOM_STATUS_BOX.getEncodingLabel().setText(getEncodingFormattedText(encoding) + "\t");
     }
 
+    /**
+     * 更新文件夹扫描进度
+     *
+     * @param scannedEntries 已扫描的子项数量
+     * @param finished       扫描是否已结束，结束后隐藏进度
+     */
+    public void updateDirectoryScanProgress(long scannedEntries, boolean finished) {
+        Label directoryScanLabel = BOTTOM_STATUS_BOX.getDirectoryScanLabel();
+        directoryScanLabel.setVisible(!finished);
+        if (!finished) {
+            directoryScanLabel.setText(UiResourceBundle.getContent(TextConstants.SCANNING_DIRECTORY) + " : " + scannedEntries + "\t");
+        }
+    }
+
+    /**
+     * 请求更新状态栏，同一事件循环中的多次请求合并为一次更新
+     */
+    private void requestStatusUpdate() {
+        if (statusUpdatePending) {
+            return;
+        }
+        statusUpdatePending = true;
+        Platform.runLater(() -> {
+            statusUpdatePending = false;
+            updateStatus();
+        });
+    }
+
+    /**
+     * 根据绑定的标签页更新行列、字数与编码信息
+     */
+    private void updateStatus() {
+        if (boundTab == null) {
+            return;
+        }
+        updateRowColumnLabel(boundTab.getTextCodeArea());
+        updateEncodingLabel(boundTab.getCharset().name());
+    }
+
     /**
      * 更新字数统计
      */
@@ -106,75 +164,53 @@ public class BottomStatusBoxManager {
         if (instance.getSelected() == null) {
             return;
         }
-        TextCodeArea textArea = instance.getSelected().getTextCodeArea();
-        int caretPosition = textArea.getCaretPosition();
-        int row = getRow(caretPosition, textArea.getText());
-        int column = getColumn(caretPosition, textArea.getText());
-        int length = textArea.getLength();
-        BOTTOM_STATUS_BOX.getStatusLabel().setText(getStatusBarFormattedText(row, column, length));
+        updateRowColumnLabel(instance.getSelected().getTextCodeArea());
     }
 
     /**
      * Tab选中时，更新状态栏
-     * <br>1. 状态栏更新当前选中tab的数字统计
-     * <br>2. 状态栏更新当前选中tab的字符编码
+     * <br>1. 状态栏绑定到当前选中的tab，解除与之前tab的绑定
+     * <br>2. 状态栏更新当前选中tab的数字统计与字符编码
      */
     public void updateWhenTabSelected() {
-        CenterTabPaneManager instance = CenterTabPaneManager.getInstance();
-        if (instance.getSelected() != null) {
-            updateWordCountStatusLabel();
-            CenterTab centerTab = instance.getSelected();
-            if (centerTab != null) {
-                updateEncodingLabel(centerTab.getCharset().name());
-
-                // 添加光标位置变化监听器
-                TextCodeArea textArea = centerTab.getTextCodeArea();
-                textArea.caretPositionProperty().addListener((ChangeListener<Number>) (observable, oldValue, newValue) -> updateRowColumnLabel(textArea.getCaretPosition(), textArea.getText()));
-            }
+        CenterTab selected = CenterTabPaneManager.getInstance().getSelected();
+        if (selected != boundTab) {
+            bindTab(selected);
         }
+        updateStatus();
     }
 
     /**
-     * 更新行列信息
-     *
-     * @param caretPosition 光标位置
-     * @param text          文本内容
-     */
-    public void updateRowColumnLabel(int caretPosition, String text) {
-        int row = getRow(caretPosition, text);
-        int column = getColumn(caretPosition, text);
-        BOTTOM_STATUS_BOX.getStatusLabel().setText(getStatusBarFormattedText(row, column, text.length()));
-    }
-
-
-    /**
-     * 获取光标所在行号。
+     * 绑定标签页，状态栏只订阅当前绑定标签页的光标、长度与编码变化
      *
-     * @param caretPosition 光标位置
-     * @param text          文本内容
-     * @return 光标所在行号
+     * @param tab 标签页，为 null 时只解除绑定
      */
-    public int getRow(int caretPosition, String text) {
-        caretPosition = Math.min(caretPosition, text.length());
-        String substring = text.substring(0, caretPosition);
-        int count = 0;
-        for (char c : substring.toCharArray()) {
-            if (c == '\n') {
-                count++;
-            }
+    private void bindTab(CenterTab tab) {
+        if (boundTabSubscription != null) {
+            boundTabSubscription.unsubscribe();
+            boundTabSubscription = null;
         }
-        return count + 1;
+        boundTab = tab;
+        if (tab == null) {
+            return;
+        }
+        TextCodeArea textArea = tab.getTextCodeArea();
+        boundTabSubscription = EventStreams.changesOf(textArea.caretPositionProperty()).subscribe(change -> requestStatusUpdate())
+                .and(EventStreams.changesOf(textArea.lengthProperty()).subscribe(change -> requestStatusUpdate()))
+                .and(EventStreams.changesOf(tab.charsetProperty()).subscribe(change -> requestStatusUpdate()));
     }
 
     /**
-     * 获取光标所在列号。
+     * 更新行列信息
+     *
+     * <p>行列号直接取自文本域的段落模型，与文本长度无关。</p>
      *
-     * @param caretPosition 光标位置
-     * @param text          文本内容
-     * @return 光标所在列号
+     * @param textArea 文本域
      */
-    public int getColumn(int caretPosition, String text) {
-        return caretPosition - text.lastIndexOf("\n", caretPosition - 1);
+    public void updateRowColumnLabel(TextCodeArea textArea) {
+        int row = textArea.getCurrentParagraph() + 1;
+        int column = textArea.getCaretColumn() + 1;
+        BOTTOM_STATUS_BOX.getStatusLabel().setText(getStatusBarFormattedText(row, column, textArea.getLength()));
     }
 
     public String getStatusBarFormattedText(int row, int column, int wordCount) {
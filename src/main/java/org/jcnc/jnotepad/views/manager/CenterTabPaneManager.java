@@ -1,21 +1,25 @@
 package org.jcnc.jnotepad.views.manager;
 
+import javafx.application.Platform;
 import javafx.collections.ObservableList;
 import javafx.scene.control.Tab;
 import javafx.stage.Stage;
 import org.jcnc.jnotepad.common.manager.ApplicationCacheManager;
-import org.jcnc.jnotepad.component.module.TextCodeArea;
+import org.jcnc.jnotepad.common.manager.FileWatchManager;
+import org.jcnc.jnotepad.common.manager.TabHibernationManager;
 import org.jcnc.jnotepad.controller.config.UserConfigController;
 import org.jcnc.jnotepad.model.enums.CacheExpirationTime;
-import org.jcnc.jnotepad.util.FileUtil;
 import org.jcnc.jnotepad.util.PopUpUtil;
 import org.jcnc.jnotepad.views.root.center.main.center.tab.CenterTab;
 import org.jcnc.jnotepad.views.root.center.main.center.tab.CenterTabPane;
+import org.jcnc.jnotepad.views.root.center.main.center.tab.LargeFileCenterTab;
 import org.jcnc.jnotepad.views.root.top.menubar.TopMenuBar;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 中心标签页窗格管理类
@@ -23,12 +27,32 @@ import java.util.List;
  * @author gewuyou
  */
 public class CenterTabPaneManager {
+    /**
+     * 标签页缓存中的文件路径
+     */
+    public static final String TAB_STATE_PATH = "path";
+    /**
+     * 标签页缓存中的文件编码
+     */
+    public static final String TAB_STATE_CHARSET = "charset";
+    /**
+     * 标签页缓存中的光标位置
+     */
+    public static final String TAB_STATE_CARET_POSITION = "caretPosition";
+    /**
+     * 标签页缓存中是否为选中的标签页
+     */
+    public static final String TAB_STATE_SELECTED = "selected";
     private static final ApplicationCacheManager CACHE_MANAGER = ApplicationCacheManager.getInstance();
     private static final CenterTabPaneManager INSTANCE = new CenterTabPaneManager();
 
     private final CenterTabPane centerTabPane = CenterTabPane.getInstance();
 
     private final BottomStatusBoxManager bottomStatusBoxManager = BottomStatusBoxManager.getInstance();
+    /**
+     * 是否正在显示重新加载提示，避免同一修改重复提示
+     */
+    private boolean reloadPromptShowing;
 
     private CenterTabPaneManager() {
 
@@ -43,6 +67,8 @@ public class CenterTabPaneManager {
      */
     public void initCenterTabPane() {
         initListeners();
+        TabHibernationManager.getInstance().start();
+        FileWatchManager.getInstance().start();
     }
 
 
@@ -58,6 +84,14 @@ public class CenterTabPaneManager {
                         TopMenuBar.getInstance().updateMenuStatusBySelectedTab();
                         // 判断当前标签页是否关联文件
                         CenterTab tab = (CenterTab) currTab;
+                        // 延迟读取的标签页在选中后读取内容，批量添加标签页时的短暂选中不触发读取
+                        Platform.runLater(() -> {
+                            if (getSelected() == tab) {
+                                tab.ensureContentLoaded();
+                                // 记录访问并休眠长时间未访问的标签页
+                                TabHibernationManager.getInstance().onTabSelected(tab);
+                            }
+                        });
                         // 检查文件标签页状态
                         checkFileTabStatus(tab);
                     }
@@ -69,36 +103,49 @@ public class CenterTabPaneManager {
 
 
     /**
-     * 检查文件标签页状态
+     * 检查文件标签页状态，关联文件已被外部修改时提示重新加载
      *
-     * @apiNote 该方法检查当前文件是否被修改，如果被修改，则返回true
+     * <p>外部修改由 {@link FileWatchManager} 在后台发现并标记，这里只比较修改时间，不读取文件内容。</p>
+     *
+     * @param tab 标签页
      */
     public void checkFileTabStatus(CenterTab tab) {
-        if (tab == null) {
+        if (tab == null || !tab.isRelevance() || reloadPromptShowing) {
             return;
         }
-        if (tab.isRelevance()) {
-            // 获取当前文本域对象
-            TextCodeArea textCodeArea = tab.getTextCodeArea();
-            // 获取当前标签页对应文件上次修改时间
-            Long lastModifiedTime = tab.getLastModifiedTimeOfAssociatedFile();
-            // 获取对应文件上次修改时间
-            File file = (File) tab.getUserData();
-
-            Long lastModifiedTimeOfFile = file.lastModified();
-            if (lastModifiedTimeOfFile.equals(lastModifiedTime)) {
-                return;
-            }
-            //fixme 这行代码不能直接放到绑定的方法中,猜测匿名内部类的延迟执行特性可能会导致在获取 FileUtil.getFileText(file) 的返回值时，文件内容还没有被正确读取，导致空串，暂无解决办法
-            String fileText = FileUtil.getFileText(file);
-            // 当前文件已被外部修改
+        // 尚未读取或正在加载的标签页在加载完成时记录修改时间
+        if (!tab.isContentLoaded() || tab.getTextCodeArea().isLoading()) {
+            return;
+        }
+        File file = (File) tab.getUserData();
+        // 文件已被删除时保留标签页内容
+        if (file == null || !file.isFile()) {
+            return;
+        }
+        // 未收到监视事件时仍比较修改时间，兼容不支持监视的文件系统
+        if (!tab.isStale() && Long.valueOf(file.lastModified()).equals(tab.getLastModifiedTimeOfAssociatedFile())) {
+            return;
+        }
+        if (tab.isFollow()) {
+            FileWatchManager.getInstance().follow(tab);
+            return;
+        }
+        // 大文件标签页只读，直接重新建立索引
+        if (tab instanceof LargeFileCenterTab) {
+            ((LargeFileCenterTab) tab).reload();
+            tab.setStale(false);
+            return;
+        }
+        reloadPromptShowing = true;
+        try {
             PopUpUtil.questionAlert(
                     "重新加载", file.getAbsolutePath(), "此文件已被外部修改，是否重新加载该文件？",
                     appDialog -> {
-                        textCodeArea.clear();
-                        textCodeArea.appendText(fileText);
                         appDialog.close();
+                        FileWatchManager.getInstance().reload(tab);
                     }, Stage::close, "是", "否");
+        } finally {
+            reloadPromptShowing = false;
         }
     }
 
@@ -147,14 +194,21 @@ public class CenterTabPaneManager {
     public void saveOpenFileTabs() {
         // 获取当前所有标签页
         ObservableList<Tab> tabs = centerTabPane.getTabs();
-        List<String> filePaths = new ArrayList<>();
-        // 缓存当前打开关联的文件
+        List<Map<String, Object>> tabStates = new ArrayList<>();
+        Tab selected = getSelected();
+        // 缓存当前打开关联的文件及其编码、光标位置
         tabs.forEach(tab -> {
             File file = (File) tab.getUserData();
             if (file != null) {
-                filePaths.add(file.getPath());
+                CenterTab centerTab = (CenterTab) tab;
+                Map<String, Object> tabState = new LinkedHashMap<>();
+                tabState.put(TAB_STATE_PATH, file.getPath());
+                tabState.put(TAB_STATE_CHARSET, centerTab.getCharset().name());
+                tabState.put(TAB_STATE_CARET_POSITION, centerTab.getRestorableCaretPosition());
+                tabState.put(TAB_STATE_SELECTED, tab == selected);
+                tabStates.add(tabState);
             }
         });
-        CACHE_MANAGER.addCache(CACHE_MANAGER.createCache("tabs", "centerTabs", filePaths, CacheExpirationTime.NEVER_EXPIRES.getValue()));
+        CACHE_MANAGER.addCache(CACHE_MANAGER.createCache("tabs", "centerTabs", tabStates, CacheExpirationTime.NEVER_EXPIRES.getValue()));
     }
 }
@@ -1,23 +1,33 @@
 package org.jcnc.jnotepad.views.manager;
 
-import javafx.beans.value.ChangeListener;
+import javafx.application.Platform;
 import javafx.scene.control.SplitPane;
 import javafx.scene.control.TreeItem;
 import org.jcnc.jnotepad.common.constants.SplitPaneItemConstants;
 import org.jcnc.jnotepad.common.manager.ApplicationCacheManager;
+import org.jcnc.jnotepad.common.manager.DirectoryScanManager;
 import org.jcnc.jnotepad.controller.event.handler.toolbar.OpenDirectory;
 import org.jcnc.jnotepad.model.entity.DirFileModel;
 import org.jcnc.jnotepad.util.FileUtil;
 import org.jcnc.jnotepad.views.root.center.main.MainBorderPane;
 import org.jcnc.jnotepad.views.root.center.main.center.directory.DirectorySidebarPane;
+import org.jcnc.jnotepad.views.root.center.main.center.directory.DirectoryTreeItem;
 
 import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * 文件树管理类
  *
- * <p>管理文件树，处理文件树操作</p>
+ * <p>管理文件树，处理文件树操作。打开文件夹时在后台扫描整个文件夹，扫描到的文件夹成批在 JavaFX 线程中添加到已展开的文件树项，
+ * 并在状态栏显示扫描进度。</p>
  *
  * @author cccqyu
  */
@@ -47,6 +57,38 @@ public class DirectorySidebarManager {
 
     private static boolean isShow = false;
 
+    /**
+     * 当前文件树的扫描，只在 JavaFX 线程中访问
+     */
+    private DirectoryScanManager.DirectoryScan directoryScan;
+    /**
+     * 已展开、等待扫描结果的文件树项，只在 JavaFX 线程中访问
+     */
+    private final Map<Path, DirectoryTreeItem> waitingItems = new HashMap<>();
+    /**
+     * 已扫描、尚未在 JavaFX 线程中处理的文件夹
+     */
+    private final Queue<Path> scannedDirectories = new ConcurrentLinkedQueue<>();
+    /**
+     * 是否已有等待执行的扫描结果处理
+     */
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final DirectoryScanManager.Listener scanListener = new DirectoryScanManager.Listener() {
+        @Override
+        public void onDirectoryScanned(DirectoryScanManager.DirectoryScan scan, Path directory) {
+            if (scan.isCancelled()) {
+                return;
+            }
+            scannedDirectories.add(directory);
+            scheduleDrain();
+        }
+
+        @Override
+        public void onFinished(DirectoryScanManager.DirectoryScan scan) {
+            scheduleDrain();
+        }
+    };
+
     /**
      * 控制文件树显示
      */
@@ -84,51 +126,75 @@ public class DirectorySidebarManager {
     }
 
     /**
-     * 设置文件树项监听事件
+     * 设置文件树内容，并开始在后台扫描文件夹
      *
-     * @param item 文件树项
-     * @return 监听事件
+     * @param dirFileModel 文件
      */
-    private static ChangeListener<Boolean> getTreeItemListener(TreeItem<DirFileModel> item) {
-        return (observable, oldValue, newValue) -> {
-            if (Boolean.TRUE.equals(newValue)) {
-                item.setGraphic(item.getValue().getIconIsSelected());
-            } else {
-                item.setGraphic(item.getValue().getIconIsNotSelected());
-            }
-        };
+    public void setTreeView(DirFileModel dirFileModel) {
+        if (dirFileModel == null) {
+            return;
+        }
+        if (directoryScan != null) {
+            directoryScan.cancel();
+        }
+        waitingItems.clear();
+        scannedDirectories.clear();
+        directoryScan = dirFileModel.isDirectory()
+                ? DirectoryScanManager.getInstance().scan(Paths.get(dirFileModel.getPath()), scanListener)
+                : null;
+        DirectoryTreeItem rootItem = new DirectoryTreeItem(dirFileModel);
+        // 展开事件向上传递到根节点，整个文件树只需一个监听器
+        rootItem.addEventHandler(TreeItem.<DirFileModel>branchExpandedEvent(),
+                event -> requestChildren((DirectoryTreeItem) event.getTreeItem()));
+        DIRECTORY_SIDEBAR_PANE.setRoot(rootItem);
+        rootItem.setExpanded(true);
     }
 
     /**
-     * 设置文件树内容
+     * 为展开的文件树项添加子项，文件夹尚未扫描时立即单独读取
      *
-     * @param dirFileModel 文件
+     * @param item 文件树项
      */
-    public void setTreeView(DirFileModel dirFileModel) {
-        TreeItem<DirFileModel> rootItem = new TreeItem<>(dirFileModel, dirFileModel.getIconIsNotSelected());
+    private void requestChildren(DirectoryTreeItem item) {
+        if (directoryScan == null || !item.requestChildren()) {
+            return;
+        }
+        Path directory = Paths.get(item.getValue().getPath());
+        List<DirFileModel> listing = directoryScan.getListing(directory);
+        if (listing != null) {
+            item.setEntries(listing);
+            return;
+        }
+        waitingItems.put(directory, item);
+        DirectoryScanManager.getInstance().requestListing(directoryScan, directory);
+    }
 
-        DIRECTORY_SIDEBAR_PANE.setRoot(rootItem);
-        rootItem.expandedProperty().addListener(getTreeItemListener(rootItem));
-        expandFolder(dirFileModel, rootItem);
+    /**
+     * 请求在 JavaFX 线程中处理扫描结果，处理前的多次请求合并为一次
+     */
+    private void scheduleDrain() {
+        if (drainScheduled.compareAndSet(false, true)) {
+            Platform.runLater(this::drainScannedDirectories);
+        }
     }
 
     /**
-     * 递归展开 dirFileModel
-     *
-     * @param dirFileModel 文件
-     * @param item         文件树子项内容
+     * 将扫描到的文件夹添加到等待中的文件树项，并更新扫描进度
      */
-    private void expandFolder(DirFileModel dirFileModel, TreeItem<DirFileModel> item) {
-        List<DirFileModel> childFileList = dirFileModel.getChildFile();
-        if (childFileList != null) {
-            for (DirFileModel childFile : childFileList) {
-                TreeItem<DirFileModel> childItem = new TreeItem<>(childFile, childFile.getIconIsNotSelected());
-                childItem.expandedProperty().addListener(getTreeItemListener(childItem));
-                item.getChildren().add(childItem);
-                expandFolder(childFile, childItem);
+    private void drainScannedDirectories() {
+        drainScheduled.set(false);
+        if (directoryScan == null) {
+            return;
+        }
+        Path directory;
+        while ((directory = scannedDirectories.poll()) != null) {
+            List<DirFileModel> listing = directoryScan.getListing(directory);
+            DirectoryTreeItem item = listing == null ? null : waitingItems.remove(directory);
+            if (item != null) {
+                item.setEntries(listing);
             }
-
         }
+        BottomStatusBoxManager.getInstance().updateDirectoryScanProgress(directoryScan.getScannedEntries(), directoryScan.isDone());
     }
 
     /**
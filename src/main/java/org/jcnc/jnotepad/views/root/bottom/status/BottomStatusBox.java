@@ -7,6 +7,7 @@ import org.jcnc.jnotepad.component.module.base.AbstractHorizontalBox;
  * 状态栏组件封装。
  * 1. 文字统计
  * 2. 编码
+ * 3. 文件夹扫描进度
  *
  * @author songdragon
  */
@@ -22,6 +23,10 @@ public class BottomStatusBox extends AbstractHorizontalBox {
      * 显示文本编码
      */
     private final Label encodingLabel = new Label();
+    /**
+     * 显示文件夹扫描进度，扫描结束后隐藏
+     */
+    private final Label directoryScanLabel = new Label();
 
     private BottomStatusBox() {
 
@@ -39,4 +44,8 @@ public class BottomStatusBox extends AbstractHorizontalBox {
     public Label getEncodingLabel() {
         return encodingLabel;
     }
+
+    public Label getDirectoryScanLabel() {
+        return directoryScanLabel;
+    }
 }
@@ -23,12 +23,17 @@ public class DirectorySidebarPane extends TreeView<DirFileModel> {
     private static final int CLICK_COUNT = 2;
 
     private DirectorySidebarPane() {
+        this.setCellFactory(treeView -> new DirectoryTreeCell());
         this.setOnMouseClicked(mouseEvent -> {
             if (mouseEvent.getClickCount() == CLICK_COUNT) {
                 TreeItem<DirFileModel> item = DirectorySidebarPane.this.getSelectionModel().getSelectedItem();
                 if (Objects.isNull(item)) {
                     return;
                 }
+                if (item.getValue().isMoreEntries()) {
+                    ((DirectoryTreeItem) item.getParent()).showMoreChildren();
+                    return;
+                }
                 File file = new File(item.getValue().getPath());
 
                 if (!file.isFile()) {
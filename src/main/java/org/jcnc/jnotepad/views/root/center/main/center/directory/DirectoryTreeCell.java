@@ -0,0 +1,64 @@
+package org.jcnc.jnotepad.views.root.center.main.center.directory;
+
+import javafx.beans.InvalidationListener;
+import javafx.beans.WeakInvalidationListener;
+import javafx.scene.control.TreeCell;
+import javafx.scene.control.TreeItem;
+import org.jcnc.jnotepad.model.entity.DirFileModel;
+import org.kordamp.ikonli.javafx.FontIcon;
+
+import static org.kordamp.ikonli.antdesignicons.AntDesignIconsFilled.*;
+
+/**
+ * 文件树单元格
+ *
+ * <p>文件树只为可见的行创建单元格，每个单元格复用同一个图标节点，
+ * 随显示的文件与展开状态切换图标，不再为每个文件创建图标。</p>
+ *
+ * @author gewuyou
+ */
+public class DirectoryTreeCell extends TreeCell<DirFileModel> {
+    private final FontIcon icon = new FontIcon();
+    private final InvalidationListener expandedListener = observable -> updateIcon();
+    private final WeakInvalidationListener weakExpandedListener = new WeakInvalidationListener(expandedListener);
+
+    public DirectoryTreeCell() {
+        treeItemProperty().addListener((observable, oldItem, newItem) -> {
+            if (oldItem != null) {
+                oldItem.expandedProperty().removeListener(weakExpandedListener);
+            }
+            if (newItem != null) {
+                newItem.expandedProperty().addListener(weakExpandedListener);
+            }
+        });
+    }
+
+    @Override
+    protected void updateItem(DirFileModel item, boolean empty) {
+        super.updateItem(item, empty);
+        if (empty || item == null) {
+            setText(null);
+            setGraphic(null);
+            return;
+        }
+        setText(item.getName());
+        if (item.isMoreEntries()) {
+            setGraphic(null);
+            return;
+        }
+        updateIcon();
+        setGraphic(icon);
+    }
+
+    private void updateIcon() {
+        TreeItem<DirFileModel> treeItem = getTreeItem();
+        if (treeItem == null || treeItem.getValue() == null) {
+            return;
+        }
+        if (!treeItem.getValue().isDirectory()) {
+            icon.setIconCode(FILE);
+        } else {
+            icon.setIconCode(treeItem.isExpanded() ? FOLDER_OPEN : FOLDER);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package org.jcnc.jnotepad.views.root.center.main.center.directory;
+
+import javafx.scene.control.TreeItem;
+import org.jcnc.jnotepad.app.i18n.UiResourceBundle;
+import org.jcnc.jnotepad.common.constants.TextConstants;
+import org.jcnc.jnotepad.controller.config.UserConfigController;
+import org.jcnc.jnotepad.model.entity.DirFileModel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 文件树项
+ *
+ * <p>文件夹的子项在第一次展开时才添加到文件树，子项由后台的文件夹扫描读取。
+ * 子项较多时每次只显示配置数量的一页，其余折叠为一个"显示更多"项。</p>
+ *
+ * @author gewuyou
+ */
+public class DirectoryTreeItem extends TreeItem<DirFileModel> {
+    /**
+     * 是否已请求子项
+     */
+    private boolean childrenRequested;
+    /**
+     * 文件夹的全部子项
+     */
+    private List<DirFileModel> entries = List.of();
+    /**
+     * 已显示的子项数量
+     */
+    private int shownEntries;
+
+    public DirectoryTreeItem(DirFileModel value) {
+        super(value);
+    }
+
+    /**
+     * 文件夹即使尚未读取子项也显示展开按钮
+     *
+     * @return 是否为文件
+     */
+    @Override
+    public boolean isLeaf() {
+        return !getValue().isDirectory();
+    }
+
+    /**
+     * 标记已请求子项，只在第一次调用时返回 true
+     *
+     * @return 是否需要读取子项
+     */
+    public boolean requestChildren() {
+        if (childrenRequested || isLeaf()) {
+            return false;
+        }
+        childrenRequested = true;
+        return true;
+    }
+
+    /**
+     * 设置文件夹的子项，显示第一页
+     *
+     * @param entries 按显示顺序排列的子项
+     */
+    public void setEntries(List<DirFileModel> entries) {
+        this.entries = entries;
+        shownEntries = 0;
+        getChildren().setAll(nextPage());
+    }
+
+    /**
+     * 以下一页子项替换末尾的"显示更多"项
+     */
+    public void showMoreChildren() {
+        if (shownEntries >= entries.size()) {
+            return;
+        }
+        List<TreeItem<DirFileModel>> children = getChildren();
+        if (!children.isEmpty() && children.get(children.size() - 1).getValue().isMoreEntries()) {
+            children.remove(children.size() - 1);
+        }
+        children.addAll(nextPage());
+    }
+
+    private List<DirectoryTreeItem> nextPage() {
+        int end = (int) Math.min(entries.size(), (long) shownEntries + UserConfigController.getInstance().getDirectoryEntryLimit());
+        List<DirectoryTreeItem> items = new ArrayList<>(end - shownEntries + 1);
+        for (int i = shownEntries; i < end; i++) {
+            items.add(new DirectoryTreeItem(entries.get(i)));
+        }
+        shownEntries = end;
+        int remaining = entries.size() - end;
+        if (remaining > 0) {
+            DirFileModel more = new DirFileModel(getValue().getPath(),
+                    UiResourceBundle.getContent(TextConstants.SHOW_MORE) + " (" + remaining + ")", false);
+            more.setMoreEntries(true);
+            items.add(new DirectoryTreeItem(more));
+        }
+        return items;
+    }
+}
@@ -1,19 +1,27 @@
 package org.jcnc.jnotepad.views.root.center.main.center.tab;
 
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.event.Event;
+import javafx.event.EventHandler;
 import javafx.scene.control.Tab;
 import org.fxmisc.flowless.VirtualizedScrollPane;
+import org.jcnc.jnotepad.common.manager.AutoSaveManager;
+import org.jcnc.jnotepad.common.manager.FileLoadManager;
+import org.jcnc.jnotepad.common.manager.FileWatchManager;
+import org.jcnc.jnotepad.common.manager.LanguageGrammarManager;
 import org.jcnc.jnotepad.component.module.TextCodeArea;
 import org.jcnc.jnotepad.controller.config.UserConfigController;
+import org.jcnc.jnotepad.model.enums.LineEnding;
 import org.jcnc.jnotepad.util.LogUtil;
-import org.jcnc.jnotepad.views.manager.BottomStatusBoxManager;
 import org.jcnc.jnotepad.views.manager.CenterTabPaneManager;
 import org.slf4j.Logger;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
 import java.nio.charset.Charset;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * 封装标签页组件，增加属于标签页的属性，例如：自动换行开关。
@@ -36,7 +44,43 @@ public class CenterTab extends Tab {
      * 关联文件上次修改时间
      */
     private Long lastModifiedTimeOfAssociatedFile;
-    private Charset charset = Charset.defaultCharset();
+    /**
+     * 文档内容对应的关联文件大小，用于判断文件是否只在末尾追加了内容
+     */
+    private Long syncedFileSize;
+    /**
+     * 关联文件是否已被外部修改
+     */
+    private boolean stale;
+    /**
+     * 是否跟随关联文件末尾追加的内容
+     */
+    private boolean follow;
+    private final ObjectProperty<Charset> charset = new SimpleObjectProperty<>(Charset.defaultCharset());
+    /**
+     * 关联文件使用的换行符，文档内部统一为 \n，保存时转换回该换行符
+     */
+    private LineEnding lineEnding = LineEnding.LF;
+    /**
+     * 标签页关闭后依次调用的处理器，不使用 onClosed 以免互相覆盖
+     */
+    private final List<EventHandler<Event>> closedHandlers = new CopyOnWriteArrayList<>();
+    /**
+     * 关联文件的内容是否已读取到文本域
+     */
+    private boolean contentLoaded = true;
+    /**
+     * 延迟读取时使用的编码，为 null 时读取时检测
+     */
+    private Charset deferredCharset;
+    /**
+     * 延迟读取完成后恢复的光标位置
+     */
+    private int deferredCaretPosition;
+    /**
+     * 延迟读取完成后显示在顶部的段落，小于 0 时滚动到光标处
+     */
+    private int deferredTopParagraph = -1;
 
     public CenterTab(String tabTitle) {
         this(tabTitle, new TextCodeArea());
@@ -52,7 +96,8 @@ public class CenterTab extends Tab {
         initTextAreaListeners();
         this.setContent(new VirtualizedScrollPane<>(textCodeArea));
         setAutoLine(UserConfigController.getInstance().getAutoLineConfig());
-        this.charset = charset;
+        this.charset.set(charset);
+        this.setOnClosed(event -> closedHandlers.forEach(handler -> handler.handle(event)));
     }
 
     public boolean isRelevance() {
@@ -72,16 +117,146 @@ public class CenterTab extends Tab {
         textCodeArea.setWrapText(autoLine);
     }
 
+    /**
+     * 添加标签页关闭后调用的处理器
+     *
+     * @param handler 处理器
+     */
+    public void addClosedHandler(EventHandler<Event> handler) {
+        closedHandlers.add(handler);
+    }
+
+    public void removeClosedHandler(EventHandler<Event> handler) {
+        closedHandlers.remove(handler);
+    }
+
     public TextCodeArea getTextCodeArea() {
         return textCodeArea;
     }
 
     public Charset getCharset() {
-        return charset;
+        return charset.get();
     }
 
     public void setCharset(Charset charset) {
-        this.charset = charset;
+        if (!Objects.equals(charset, getCharset())) {
+            // 编码改变后文件中的所有字符都需要重新编码
+            textCodeArea.getDirtyRanges().markAllDirty();
+        }
+        this.charset.set(charset);
+    }
+
+    public ObjectProperty<Charset> charsetProperty() {
+        return charset;
+    }
+
+    public LineEnding getLineEnding() {
+        return lineEnding;
+    }
+
+    public void setLineEnding(LineEnding lineEnding) {
+        this.lineEnding = lineEnding;
+    }
+
+    /**
+     * 根据关联文件的扩展名切换语言语法，未关联文件时保持不变
+     */
+    public void updateLanguageGrammar() {
+        File file = (File) getUserData();
+        if (file == null) {
+            return;
+        }
+        textCodeArea.setLanguageGrammar(LanguageGrammarManager.getInstance().getGrammarByFileName(file.getName()));
+    }
+
+    /**
+     * 延迟读取关联文件，文件内容在调用 {@link #ensureContentLoaded()} 时才读取
+     *
+     * @param charset       文件编码，为 null 时读取时检测
+     * @param caretPosition 读取完成后恢复的光标位置
+     */
+    public void deferContentLoad(Charset charset, int caretPosition) {
+        deferContentLoad(charset, caretPosition, -1);
+    }
+
+    /**
+     * 延迟读取关联文件，文件内容在调用 {@link #ensureContentLoaded()} 时才读取
+     *
+     * @param charset       文件编码，为 null 时读取时检测
+     * @param caretPosition 读取完成后恢复的光标位置
+     * @param topParagraph  读取完成后显示在顶部的段落，小于 0 时滚动到光标处
+     */
+    public void deferContentLoad(Charset charset, int caretPosition, int topParagraph) {
+        this.contentLoaded = false;
+        this.deferredCharset = charset;
+        this.deferredCaretPosition = caretPosition;
+        this.deferredTopParagraph = topParagraph;
+    }
+
+    /**
+     * 确保关联文件的内容已开始读取
+     */
+    public void ensureContentLoaded() {
+        if (contentLoaded) {
+            return;
+        }
+        contentLoaded = true;
+        FileLoadManager.getInstance().load(this, (File) getUserData(), deferredCharset, deferredCaretPosition,
+                deferredTopParagraph);
+    }
+
+    public boolean isContentLoaded() {
+        return contentLoaded;
+    }
+
+    /**
+     * 获取需要在下次启动时恢复的光标位置
+     *
+     * @return 光标位置
+     */
+    public int getRestorableCaretPosition() {
+        return contentLoaded ? textCodeArea.getCaretPosition() : deferredCaretPosition;
+    }
+
+    /**
+     * 是否为只读标签页，只读标签页的内容不会写回文件
+     *
+     * @return 是否只读
+     */
+    public boolean isReadOnly() {
+        return follow;
+    }
+
+    public boolean isFollow() {
+        return follow;
+    }
+
+    /**
+     * 设置是否跟随关联文件末尾追加的内容
+     *
+     * <p>跟随期间标签页只读，文件增长时只读取追加的部分。</p>
+     *
+     * @param follow 是否跟随
+     */
+    public void setFollow(boolean follow) {
+        if (this.follow == follow || (follow && !isFollowSupported())) {
+            return;
+        }
+        if (follow) {
+            // 先写入未保存的修改，写入完成后内容只从文件读取
+            AutoSaveManager.getInstance().saveThen(this, () -> FileWatchManager.getInstance().follow(this));
+        }
+        this.follow = follow;
+        textCodeArea.setEditable(!follow && !textCodeArea.isLoading());
+    }
+
+    /**
+     * 是否支持跟随文件末尾
+     *
+     * @return 是否支持
+     */
+    public boolean isFollowSupported() {
+        return getUserData() != null;
     }
 
     /**
@@ -91,15 +266,13 @@ public class CenterTab extends Tab {
         // 获取当前选定的中央标签页（CenterTab对象）
         CenterTab tab = CenterTabPaneManager.getInstance().getSelected();
 
-        // 如果没有选定标签页，返回，不执行保存操作
-        if (tab == null) {
+        // 如果没有选定标签页或标签页只读，返回，不执行保存操作
+        if (tab == null || tab.isReadOnly()) {
             return;
         }
 
         // 从标签页的用户数据中获取文件对象
         File file = (File) tab.getUserData();
-        // 获取主文本区域中的文本内容
-        String newValue = tab.getTextCodeArea().getText();
 
         // 如果文件对象为空，记录警告信息并返回，不执行保存操作
         if (file == null) {
@@ -107,30 +280,18 @@ public class CenterTab extends Tab {
             return;
         }
 
-        // 尝试使用BufferedWriter写入文件内容
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file, tab.getCharset()))) {
-            // 将新的文本内容写入文件
-            writer.write(newValue);
-            // 记录保存操作的日志信息
-            LogUtil.getLogger(this.getClass()).info("正在自动保存---");
-        } catch (IOException ignored) {
-            // 如果发生IO异常，记录忽视的日志信息，但不中断程序执行
-            LogUtil.getLogger(this.getClass()).info("已忽视IO异常!");
-        }
-        // 更新最后修改时间
-        tab.setLastModifiedTimeOfAssociatedFile(file.lastModified());
+        // 在后台线程中写入，等待中的自动保存一并取消
+        AutoSaveManager.getInstance().saveNow(tab);
     }
 
     /**
      * 初始化监听器方法
      */
     private void initTextAreaListeners() {
-        // 监听主要文本区域的文本变化
-        textCodeArea.textProperty().addListener((observable, oldValue, newValue) -> {
-            BottomStatusBoxManager.getInstance().updateWordCountStatusLabel();
-            saveSelectedFileTab();
-        });
+        // 监听主要文本区域的文本变化，停止输入一段时间后自动保存
+        textCodeArea.plainTextChanges().subscribe(change -> AutoSaveManager.getInstance().requestSave(this));
     }
+
     /**
      * 保存为指定文件
      *
@@ -141,7 +302,12 @@ public class CenterTab extends Tab {
             return;
         }
         this.setUserData(file);
-        saveSelectedFileTab();
+        this.syncedFileSize = null;
+        // 修改区间相对于原文件，新文件需要完整写入
+        textCodeArea.getDirtyRanges().markAllDirty();
+        AutoSaveManager.getInstance().saveNow(this);
+        updateLanguageGrammar();
+        FileWatchManager.getInstance().updateWatchedDirectories();
     }
 
     public Long getLastModifiedTimeOfAssociatedFile() {
@@ -151,4 +317,28 @@ public class CenterTab extends Tab {
     public void setLastModifiedTimeOfAssociatedFile(Long lastModifiedTimeOfAssociatedFile) {
         this.lastModifiedTimeOfAssociatedFile = lastModifiedTimeOfAssociatedFile;
     }
+
+    /**
+     * 记录文档内容已与关联文件一致
+     *
+     * @param lastModified 关联文件的修改时间
+     * @param fileSize     文档内容对应的文件大小
+     */
+    public void markSynced(long lastModified, long fileSize) {
+        this.lastModifiedTimeOfAssociatedFile = lastModified;
+        this.syncedFileSize = fileSize;
+        this.stale = false;
+    }
+
+    public Long getSyncedFileSize() {
+        return syncedFileSize;
+    }
+
+    public boolean isStale() {
+        return stale;
+    }
+
+    public void setStale(boolean stale) {
+        this.stale = stale;
+    }
 }
@@ -0,0 +1,317 @@
+package org.jcnc.jnotepad.views.root.center.main.center.tab;
+
+import javafx.application.Platform;
+import javafx.geometry.Orientation;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.BorderPane;
+import org.jcnc.jnotepad.common.manager.ThreadPoolManager;
+import org.jcnc.jnotepad.component.module.TextCodeArea;
+import org.jcnc.jnotepad.model.document.LineOffsetIndex;
+import org.jcnc.jnotepad.util.PopUpUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * 大文件标签页
+ *
+ * <p>只读打开超过大小阈值的文件：后台顺序扫描文件建立行偏移索引，
+ * 文本域中只加载滚动位置附近的一段行，内存占用与文件大小无关。滚动或光标越过窗口的首尾行时加载相邻的窗口。</p>
+ *
+ * @author gewuyou
+ */
+public class LargeFileCenterTab extends CenterTab {
+    /**
+     * 文本域中加载的行数
+     */
+    private static final int WINDOW_LINES = 200;
+    /**
+     * 鼠标滚轮每滚动一格的像素增量
+     */
+    private static final double SCROLL_DELTA_PER_NOTCH = 40;
+    /**
+     * 鼠标滚轮每滚动一格滚动的行数
+     */
+    private static final int LINES_PER_NOTCH = 3;
+    /**
+     * 翻页滚动的行数
+     */
+    private static final int LINES_PER_PAGE = 40;
+
+    private final ScrollBar scrollBar = new ScrollBar();
+    private LineOffsetIndex index;
+    /**
+     * 当前文本域中第一行对应的文件行
+     */
+    private long firstLine;
+    /**
+     * 最近一次请求加载的起始行
+     */
+    private long requestedLine;
+    /**
+     * 是否有正在进行的加载
+     */
+    private boolean loading;
+    /**
+     * 窗口加载后光标应位于的文件行，没有时为 -1
+     */
+    private long pendingCaretLine = -1;
+    /**
+     * 窗口加载后光标应位于的列
+     */
+    private int pendingCaretColumn;
+
+    public LargeFileCenterTab(File file, Charset charset) {
+        super(file.getName(), new TextCodeArea(), charset);
+        TextCodeArea textCodeArea = getTextCodeArea();
+        textCodeArea.setEditable(false);
+        // 行号显示文件中的真实行号
+        textCodeArea.setParagraphGraphicFactory(paragraph -> {
+            Label lineNumber = new Label(String.valueOf(firstLine + paragraph + 1));
+            lineNumber.getStyleClass().add("lineno");
+            return lineNumber;
+        });
+        textCodeArea.addEventFilter(ScrollEvent.SCROLL, this::handleScroll);
+        textCodeArea.addEventFilter(KeyEvent.KEY_PRESSED, this::handleKeyPressed);
+
+        scrollBar.setOrientation(Orientation.VERTICAL);
+        scrollBar.setMin(0);
+        scrollBar.setMax(0);
+        scrollBar.setUnitIncrement(1);
+        scrollBar.setBlockIncrement(LINES_PER_PAGE);
+        scrollBar.setVisibleAmount(LINES_PER_PAGE);
+        scrollBar.valueProperty().addListener((observable, oldValue, newValue) -> requestWindow(newValue.longValue()));
+
+        BorderPane content = new BorderPane(textCodeArea);
+        content.setRight(scrollBar);
+        this.setContent(content);
+        // 设置当前标签页关联本地文件
+        this.setRelevance(true);
+        this.setUserData(file);
+        updateLanguageGrammar();
+        addClosedHandler(event -> closeIndex());
+        reload();
+    }
+
+    /**
+     * 重新建立索引并刷新当前窗口
+     */
+    public void reload() {
+        closeIndex();
+        File file = (File) getUserData();
+        try {
+            index = LineOffsetIndex.open(file.toPath(), getCharset());
+        } catch (IOException e) {
+            logger.error("打开大文件失败: {}", file, e);
+            PopUpUtil.errorAlert("错误", "读写错误", "读取文件失败: " + file.getName(), null, null);
+            return;
+        }
+        setLastModifiedTimeOfAssociatedFile(file.lastModified());
+        LineOffsetIndex building = index;
+        ProgressIndicator progressIndicator = new ProgressIndicator();
+        progressIndicator.setPrefSize(14, 14);
+        this.setGraphic(progressIndicator);
+        ThreadPoolManager.getFileThreadPool().submit(() -> {
+            try {
+                building.build(lineCount -> Platform.runLater(() -> updateLineCount(building, lineCount)));
+                logger.info("大文件索引建立完成: {}，共 {} 行", building.getPath(), building.getLineCount());
+            } catch (IOException e) {
+                // 标签页关闭时通道被关闭，属于正常结束
+                if (index == building) {
+                    logger.error("建立大文件索引失败: {}", building.getPath(), e);
+                }
+            } finally {
+                Platform.runLater(() -> {
+                    if (index == building) {
+                        this.setGraphic(null);
+                    }
+                });
+            }
+        });
+        requestWindow(Math.round(scrollBar.getValue()));
+    }
+
+    private void updateLineCount(LineOffsetIndex building, long lineCount) {
+        if (index != building) {
+            return;
+        }
+        scrollBar.setMax(Math.max(0, lineCount - LINES_PER_PAGE));
+        // 首次得到索引结果或当前窗口未填满时刷新
+        if (getTextCodeArea().getParagraphs().size() < WINDOW_LINES) {
+            requestWindow(requestedLine);
+        }
+    }
+
+    /**
+     * 请求加载从指定行开始的窗口
+     *
+     * <p>加载在后台线程中进行，连续请求会被合并，只加载最后请求的位置。</p>
+     *
+     * @param line 起始行
+     */
+    private void requestWindow(long line) {
+        requestedLine = line;
+        if (loading || index == null) {
+            return;
+        }
+        loading = true;
+        LineOffsetIndex reading = index;
+        long target = line;
+        ThreadPoolManager.getFileThreadPool().submit(() -> {
+            String text;
+            try {
+                text = reading.readLines(target, WINDOW_LINES);
+            } catch (IOException e) {
+                logger.error("读取大文件失败: {}", reading.getPath(), e);
+                text = null;
+            }
+            String window = text;
+            Platform.runLater(() -> {
+                loading = false;
+                if (window != null && index == reading) {
+                    firstLine = target;
+                    getTextCodeArea().replaceText(window);
+                    restoreCaret();
+                }
+                if (requestedLine != target && index == reading) {
+                    requestWindow(requestedLine);
+                }
+            });
+        });
+    }
+
+    /**
+     * 窗口加载后把光标移到等待的位置，等待的行不在窗口中时移到窗口开头
+     */
+    private void restoreCaret() {
+        TextCodeArea textCodeArea = getTextCodeArea();
+        long paragraph = pendingCaretLine - firstLine;
+        if (pendingCaretLine < 0 || paragraph < 0 || paragraph >= textCodeArea.getParagraphs().size()) {
+            textCodeArea.moveTo(0);
+            return;
+        }
+        int column = Math.min(pendingCaretColumn, textCodeArea.getParagraphLength((int) paragraph));
+        textCodeArea.moveTo((int) paragraph, column);
+        textCodeArea.requestFollowCaret();
+        pendingCaretLine = -1;
+    }
+
+    /**
+     * 光标越过窗口首行或末行时，加载以目标行为中心的窗口
+     *
+     * @param line   光标要移到的文件行
+     * @param column 光标所在的列
+     */
+    private void moveCaretOutsideWindow(long line, int column) {
+        pendingCaretLine = line;
+        pendingCaretColumn = column;
+        double value = clamp(Math.max(0, line - WINDOW_LINES / 2));
+        if (value == scrollBar.getValue()) {
+            requestWindow(Math.round(value));
+        } else {
+            scrollBar.setValue(value);
+        }
+    }
+
+    private void handleScroll(ScrollEvent event) {
+        double lines = -event.getDeltaY() / SCROLL_DELTA_PER_NOTCH * LINES_PER_NOTCH;
+        pendingCaretLine = -1;
+        scrollBar.setValue(clamp(scrollBar.getValue() + lines));
+        event.consume();
+    }
+
+    private void handleKeyPressed(KeyEvent event) {
+        TextCodeArea textCodeArea = getTextCodeArea();
+        int paragraph = textCodeArea.getCurrentParagraph();
+        int paragraphCount = textCodeArea.getParagraphs().size();
+        boolean plainArrow = !event.isShortcutDown() && !event.isShiftDown() && index != null;
+        if (plainArrow && event.getCode() == KeyCode.UP && paragraph == 0 && firstLine > 0) {
+            moveCaretOutsideWindow(firstLine - 1, textCodeArea.getCaretColumn());
+            event.consume();
+            return;
+        }
+        if (plainArrow && event.getCode() == KeyCode.DOWN && paragraph == paragraphCount - 1
+                && firstLine + paragraphCount < index.getLineCount()) {
+            moveCaretOutsideWindow(firstLine + paragraphCount, textCodeArea.getCaretColumn());
+            event.consume();
+            return;
+        }
+        double value = scrollBar.getValue();
+        if (event.getCode() == KeyCode.PAGE_DOWN) {
+            value += LINES_PER_PAGE;
+        } else if (event.getCode() == KeyCode.PAGE_UP) {
+            value -= LINES_PER_PAGE;
+        } else if (event.isShortcutDown() && event.getCode() == KeyCode.HOME) {
+            value = scrollBar.getMin();
+        } else if (event.isShortcutDown() && event.getCode() == KeyCode.END) {
+            value = scrollBar.getMax();
+        } else {
+            return;
+        }
+        pendingCaretLine = -1;
+        scrollBar.setValue(clamp(value));
+        event.consume();
+    }
+
+    private double clamp(double value) {
+        return Math.max(scrollBar.getMin(), Math.min(scrollBar.getMax(), value));
+    }
+
+    private void closeIndex() {
+        if (index == null) {
+            return;
+        }
+        try {
+            index.close();
+        } catch (IOException e) {
+            logger.warn("关闭大文件失败: {}", index.getPath(), e);
+        }
+        index = null;
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+
+    /**
+     * 大文件标签页在文件修改后重新建立索引，不支持跟随文件末尾
+     *
+     * @return false
+     */
+    @Override
+    public boolean isFollowSupported() {
+        return false;
+    }
+
+    /**
+     * 另存为时直接复制原文件
+     *
+     * @param file 新文件
+     */
+    @Override
+    public void save(File file) {
+        if (file == null) {
+            return;
+        }
+        File source = (File) getUserData();
+        try {
+            Files.copy(source.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            logger.error("复制文件失败: {} -> {}", source, file, e);
+            PopUpUtil.errorAlert("错误", "读写错误", "保存文件失败: " + file.getName(), null, null);
+            return;
+        }
+        this.setUserData(file);
+        updateLanguageGrammar();
+        reload();
+    }
+}
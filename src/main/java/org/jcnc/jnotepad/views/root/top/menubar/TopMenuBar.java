@@ -107,6 +107,10 @@ public class TopMenuBar extends MenuBar {
      * 自动换行点击菜单按钮
      */
     private final CheckMenuItem lineFeedItem = new CheckMenuItem();
+    /**
+     * 跟随文件末尾按钮
+     */
+    private final CheckMenuItem followItem = new CheckMenuItem();
     /**
      * 置顶按钮
      */
@@ -139,6 +143,8 @@ public class TopMenuBar extends MenuBar {
     public void updateMenuStatusBySelectedTab() {
         CenterTab selectedTab = centerTabPane.getSelected();
         lineFeedItem.selectedProperty().setValue(selectedTab.isAutoLine());
+        followItem.selectedProperty().setValue(selectedTab.isFollow());
+        followItem.setDisable(!selectedTab.isFollowSupported());
     }
 
     public Menu getFileMenu() {
@@ -206,6 +212,10 @@ public class TopMenuBar extends MenuBar {
         return lineFeedItem;
     }
 
+    public CheckMenuItem getFollowItem() {
+        return followItem;
+    }
+
     public CheckMenuItem getTopItem() {
         return topItem;
     }
@@ -8,6 +8,7 @@ import org.jcnc.jnotepad.controller.config.UserConfigController;
 import org.jcnc.jnotepad.controller.event.handler.menuitem.OpenConfig;
 import org.jcnc.jnotepad.util.UiUtil;
 import org.jcnc.jnotepad.views.manager.CenterTabPaneManager;
+import org.jcnc.jnotepad.views.root.center.main.center.tab.CenterTab;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -73,6 +74,14 @@ public class SettingTopMenu extends AbstractTopMenu {
         });
         topMenuBar.getLineFeedItem().selectedProperty().set(true);
 
+        registerMenuItem(topMenuBar.getFollowItem(), FOLLOW_FILE, "followItem", (observableValue, before, after) -> {
+            // 对当前tab生效，跟随期间标签页只读
+            CenterTab selectedTab = CenterTabPaneManager.getInstance().getSelected();
+            if (selectedTab != null) {
+                selectedTab.setFollow(after);
+            }
+        });
+
         registerMenuItem(topMenuBar.getTopItem(), TOP, "topItem", (observableValue, before, after) -> {
             // 获取窗口容器
             Stage primaryStage = (Stage) UiUtil.getAppWindow();
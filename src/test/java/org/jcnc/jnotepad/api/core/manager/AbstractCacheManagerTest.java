@@ -0,0 +1,57 @@
+package org.jcnc.jnotepad.api.core.manager;
+
+import org.jcnc.jnotepad.model.entity.Cache;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 缓存组在第一次使用时加载
+ *
+ * @author gewuyou
+ */
+class AbstractCacheManagerTest {
+    private final List<String> loadedGroups = new ArrayList<>();
+    private final AbstractCacheManager cacheManager = new AbstractCacheManager() {
+        @Override
+        public String getGlobalNamespace() {
+            return "app";
+        }
+    };
+
+    private void registerGroups(String... groups) {
+        cacheManager.setCaches(new HashMap<>(16));
+        cacheManager.setUnloadedGroups(
+                List.of(groups).stream().map(group -> Map.entry("app", group)).toList(),
+                (namespace, group) -> {
+                    loadedGroups.add(group);
+                    return List.of(new Cache(namespace, group, "name", group + "-data", -1L));
+                });
+    }
+
+    @Test
+    void getCacheByGroupLoadsOnlyThatGroup() {
+        registerGroups("recent", "session", "plugin");
+
+        assertEquals("session-data", cacheManager.getCacheData("session", "name"));
+        assertNull(cacheManager.getCache("session", "missing"));
+        assertEquals(List.of("session"), loadedGroups);
+    }
+
+    @Test
+    void getCacheByKeyLoadsOnlyMatchingGroups() {
+        registerGroups("recent", "session", "session.tabs");
+
+        assertEquals("session.tabs-data", cacheManager.getCache("app.session.tabs.name").getCacheData());
+        // 组名含有分隔符时无法确定属于哪个组，两个候选都会加载
+        assertEquals(List.of("session", "session.tabs"), loadedGroups.stream().sorted().toList());
+        assertNull(cacheManager.getCache("other.recent.name"));
+        assertEquals(2, loadedGroups.size());
+    }
+}
@@ -0,0 +1,116 @@
+package org.jcnc.jnotepad.common.manager;
+
+import org.fxmisc.richtext.model.ReadOnlyStyledDocument;
+import org.fxmisc.richtext.model.SegmentOps;
+import org.fxmisc.richtext.model.SimpleEditableStyledDocument;
+import org.jcnc.jnotepad.model.document.DirtyRangeTracker;
+import org.jcnc.jnotepad.model.document.DocumentSnapshot;
+import org.jcnc.jnotepad.model.enums.LineEnding;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 从文档快照保存文件
+ *
+ * @author gewuyou
+ */
+class FileSaveManagerTest {
+    @TempDir
+    static Path configHome;
+    @TempDir
+    Path dir;
+
+    @BeforeAll
+    static void useTempConfigHome() {
+        // 保存时会读取用户配置，配置文件写入临时目录
+        System.setProperty("user.home", configHome.toString());
+    }
+
+    private static String content() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 60000; i++) {
+            builder.append("line ").append(i).append('\n');
+        }
+        return builder.toString();
+    }
+
+    private static ReadOnlyStyledDocument<String, String, String> document(String text) {
+        return ReadOnlyStyledDocument.fromString(text, "", "", SegmentOps.styledTextOps());
+    }
+
+    /**
+     * 文本域中的文档，修改同时记录到修改区间
+     */
+    private static class EditedDocument {
+        private final SimpleEditableStyledDocument<String, String> document = new SimpleEditableStyledDocument<>("", "");
+        private final DirtyRangeTracker dirtyRanges = new DirtyRangeTracker();
+
+        private EditedDocument(String text) {
+            document.replace(0, 0, document(text));
+            dirtyRanges.reset(text.length());
+        }
+
+        private void replace(int start, int end, String text) {
+            document.replace(start, end, document(text));
+            dirtyRanges.record(start, end, text.length());
+        }
+
+        private DocumentSnapshot snapshot() {
+            return new DocumentSnapshot(document.snapshot());
+        }
+    }
+
+    @Test
+    void saveAtomicallyWritesSnapshotWithLineEnding() throws IOException {
+        Path file = dir.resolve("crlf.txt");
+        Files.writeString(file, "old");
+        EditedDocument document = new EditedDocument(content());
+        DocumentSnapshot snapshot = document.snapshot();
+        // 快照之后的修改不影响写入的内容
+        document.replace(0, 4, "LINE");
+
+        FileSaveManager.getInstance().saveAtomically(file, snapshot, StandardCharsets.UTF_8, LineEnding.CRLF);
+
+        assertEquals(content().replace("\n", "\r\n"), Files.readString(file));
+    }
+
+    @Test
+    void savePatchRewritesOnlyDirtyRanges() throws IOException {
+        Path file = dir.resolve("patch.txt");
+        String text = content();
+        Files.writeString(file, text);
+        EditedDocument document = new EditedDocument(text);
+
+        document.replace(0, 4, "LINE");
+        document.replace(text.length() - 1, text.length(), "");
+        boolean patched = FileSaveManager.getInstance().savePatch(file, document.snapshot(), document.dirtyRanges.take(),
+                StandardCharsets.UTF_8, LineEnding.LF);
+
+        assertTrue(patched);
+        assertEquals("LINE" + text.substring(4, text.length() - 1), Files.readString(file));
+    }
+
+    @Test
+    void savePatchDeclinesOtherLineEndings() throws IOException {
+        Path file = dir.resolve("declined.txt");
+        String text = content().replace("\n", "\r\n");
+        Files.writeString(file, text);
+        EditedDocument document = new EditedDocument(content());
+
+        document.replace(0, 4, "LINE");
+
+        assertFalse(FileSaveManager.getInstance().savePatch(file, document.snapshot(), document.dirtyRanges.take(),
+                StandardCharsets.UTF_8, LineEnding.CRLF));
+        assertEquals(text, Files.readString(file));
+    }
+}
@@ -0,0 +1,158 @@
+package org.jcnc.jnotepad.component.module.highlight;
+
+import org.fxmisc.richtext.model.StyleSpans;
+import org.fxmisc.richtext.model.StyleSpansBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Java 语法高亮的分析耗时
+ *
+ * <p>以 {@code sourceRoot} 目录下的全部 Java 源码作为输入（默认为本项目的源码，可通过 {@code -p sourceRoot=<目录>} 指定），
+ * 逐行分析的方式与 {@link HighlightTask} 相同。{@link #regexFullText()} 为改为逐行分析之前的做法，
+ * 用同一个正则表达式匹配整个文本，作为对比的基准。</p>
+ *
+ * @author gewuyou
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JavaLineLexerBenchmark {
+    private static final String[] KEYWORDS = new String[]{
+            "abstract", "assert", "boolean", "break", "byte",
+            "case", "catch", "char", "class", "const",
+            "continue", "default", "do", "double", "else",
+            "enum", "extends", "final", "finally", "float",
+            "for", "goto", "if", "implements", "import",
+            "instanceof", "int", "interface", "long", "native",
+            "new", "package", "private", "protected", "public",
+            "return", "short", "static", "strictfp", "super",
+            "switch", "synchronized", "this", "throw", "throws",
+            "transient", "try", "void", "volatile", "while"
+    };
+    /**
+     * 原先整体文本高亮使用的复合模式
+     */
+    private static final Pattern PATTERN = Pattern.compile(
+            "(?<KEYWORD>\\b(" + String.join("|", KEYWORDS) + ")\\b)"
+                    + "|(?<PAREN>[()])"
+                    + "|(?<BRACE>[{}])"
+                    + "|(?<BRACKET>[\\[\\]])"
+                    + "|(?<SEMICOLON>;)"
+                    + "|(?<STRING>\"([^\"\\\\]|\\\\.)*\")"
+                    + "|(?<COMMENT>//[^\n]*|/\\*(.|\\R)*?\\*/|/\\*\\V*|^\\h*\\*(\\V*|/))"
+    );
+    private final LineLexer lexer = new JavaLanguageGrammar().getLexer();
+    /**
+     * 作为输入的源码目录
+     */
+    @Param({"src/main/java"})
+    private String sourceRoot;
+    private String[] lines;
+    private String text;
+
+    @Setup
+    public void setUp() throws IOException {
+        Path root = Path.of(sourceRoot);
+        if (!Files.isDirectory(root)) {
+            throw new IOException("源码目录不存在: " + root.toAbsolutePath());
+        }
+        try (Stream<Path> files = Files.walk(root)) {
+            lines = files.filter(file -> file.toString().endsWith(".java"))
+                    .sorted()
+                    .flatMap(file -> {
+                        try {
+                            return Files.readAllLines(file).stream();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    })
+                    .toArray(String[]::new);
+        }
+        text = String.join("\n", lines);
+    }
+
+    @Benchmark
+    public StyleSpans<Collection<String>> lexAllLines() {
+        StyleSpansBuilder<Collection<String>> builder = new StyleSpansBuilder<>();
+        int state = LineLexer.INITIAL_STATE;
+        for (String line : lines) {
+            state = lexer.lexLine(line, state, builder);
+            builder.add(Collections.emptyList(), 1);
+        }
+        return builder.create();
+    }
+
+    /**
+     * 原先的做法：每次修改后用复合模式匹配整个文本
+     *
+     * @return 样式区间
+     */
+    @Benchmark
+    public StyleSpans<Collection<String>> regexFullText() {
+        Matcher matcher = PATTERN.matcher(text);
+        int lastKwEnd = 0;
+        StyleSpansBuilder<Collection<String>> spansBuilder = new StyleSpansBuilder<>();
+        while (matcher.find()) {
+            String styleClass = getStyleClass(matcher);
+            spansBuilder.add(Collections.emptyList(), matcher.start() - lastKwEnd);
+            spansBuilder.add(Collections.singleton(styleClass), matcher.end() - matcher.start());
+            lastKwEnd = matcher.end();
+        }
+        spansBuilder.add(Collections.emptyList(), text.length() - lastKwEnd);
+        return spansBuilder.create();
+    }
+
+    private static String getStyleClass(Matcher matcher) {
+        Map<String, String> patternToStyleClass = new HashMap<>(16);
+        patternToStyleClass.put("keyword", matcher.group("KEYWORD"));
+        patternToStyleClass.put("paren", matcher.group("PAREN"));
+        patternToStyleClass.put("brace", matcher.group("BRACE"));
+        patternToStyleClass.put("bracket", matcher.group("BRACKET"));
+        patternToStyleClass.put("semicolon", matcher.group("SEMICOLON"));
+        patternToStyleClass.put("string", matcher.group("STRING"));
+        patternToStyleClass.put("comment", matcher.group("COMMENT"));
+        for (Map.Entry<String, String> entry : patternToStyleClass.entrySet()) {
+            if (entry.getValue() != null) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        // 在项目根目录下运行时使用本项目的源码
+        new Runner(new OptionsBuilder()
+                .include(JavaLineLexerBenchmark.class.getSimpleName())
+                .param("sourceRoot", Path.of("src", "main", "java").toAbsolutePath().toString())
+                .build()).run();
+    }
+}
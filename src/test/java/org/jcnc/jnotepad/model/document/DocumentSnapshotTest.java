@@ -0,0 +1,62 @@
+package org.jcnc.jnotepad.model.document;
+
+import org.fxmisc.richtext.model.ReadOnlyStyledDocument;
+import org.fxmisc.richtext.model.SegmentOps;
+import org.fxmisc.richtext.model.SimpleEditableStyledDocument;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 文本域内容快照
+ *
+ * @author gewuyou
+ */
+class DocumentSnapshotTest {
+
+    private static ReadOnlyStyledDocument<String, String, String> document(String text, String style) {
+        return ReadOnlyStyledDocument.fromString(text, "", style, SegmentOps.styledTextOps());
+    }
+
+    @Test
+    void readsLikeTheDocumentText() {
+        SimpleEditableStyledDocument<String, String> document = new SimpleEditableStyledDocument<>("", "");
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            expected.append("line ").append(i).append(i % 7 == 0 ? "\n\n" : "\n");
+        }
+        document.replace(0, 0, document(expected.toString(), "plain"));
+        // 不同样式的片段使段落由多个片段组成
+        document.replace(10, 10, document("styled", "keyword"));
+        expected.insert(10, "styled");
+        String text = expected.toString();
+
+        DocumentSnapshot snapshot = new DocumentSnapshot(document.snapshot());
+        assertEquals(text.length(), snapshot.length());
+        assertEquals(text, snapshot.toString());
+        // 顺序读取与随机读取
+        for (int i = 0; i < text.length(); i++) {
+            assertEquals(text.charAt(i), snapshot.charAt(i));
+        }
+        Random random = new Random(1);
+        for (int i = 0; i < 500; i++) {
+            int index = random.nextInt(text.length());
+            assertEquals(text.charAt(index), snapshot.charAt(index));
+            int end = index + random.nextInt(text.length() - index + 1);
+            assertEquals(text.substring(index, end), snapshot.subSequence(index, end).toString());
+        }
+    }
+
+    @Test
+    void isNotAffectedByLaterEdits() {
+        SimpleEditableStyledDocument<String, String> document = new SimpleEditableStyledDocument<>("", "");
+        document.replace(0, 0, document("a\nb\n", ""));
+        DocumentSnapshot snapshot = new DocumentSnapshot(document.snapshot());
+        document.replace(0, 3, document("changed", ""));
+
+        assertEquals("a\nb\n", snapshot.toString());
+        assertEquals("", new DocumentSnapshot(document("", "")).toString());
+    }
+}
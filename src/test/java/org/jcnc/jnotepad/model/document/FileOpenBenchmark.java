@@ -0,0 +1,78 @@
+package org.jcnc.jnotepad.model.document;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 打开文件的耗时
+ *
+ * <p>流式解码整个文件，UTF-16 的解码依赖前文状态，与 UTF-8 对比。文件内容为 CRLF 换行的文本行。</p>
+ *
+ * @author gewuyou
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class FileOpenBenchmark {
+    @Param({"1", "100", "1024"})
+    private int sizeMb;
+    @Param({"UTF-8", "UTF-16"})
+    private String charsetName;
+    private Charset charset;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        charset = Charset.forName(charsetName);
+        file = Files.createTempFile("open-benchmark", ".txt");
+        long targetBytes = sizeMb * 1024L * 1024;
+        try (Writer writer = Files.newBufferedWriter(file, charset)) {
+            for (long line = 0; Files.size(file) < targetBytes; ) {
+                for (int i = 0; i < 10_000; i++, line++) {
+                    writer.write("line " + line + " of the benchmark input, with some ordinary words\r\n");
+                }
+                writer.flush();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public long open() throws IOException {
+        long[] chars = new long[1];
+        TextFileDecoder.decode(file, charset, chunk -> chars[0] += chunk.length());
+        return chars[0];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(FileOpenBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,61 @@
+package org.jcnc.jnotepad.model.document;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 文本文件流式解码
+ *
+ * @author gewuyou
+ */
+class TextFileDecoderTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void decodesAcrossChunksAndNormalizesLineSeparators() throws IOException {
+        StringBuilder raw = new StringBuilder();
+        for (int i = 0; i < 100_000; i++) {
+            raw.append("第").append(i).append("行 😀").append(i % 3 == 0 ? "\r\n" : i % 3 == 1 ? "\r" : "\n");
+        }
+        Charset charset = StandardCharsets.UTF_16;
+        Path file = dir.resolve("utf16.txt");
+        Files.writeString(file, raw, charset);
+
+        StringBuilder streamed = new StringBuilder();
+        int[] chunkCount = new int[1];
+        long bytes = TextFileDecoder.decode(file, charset, chunk -> {
+            assertFalse(Character.isHighSurrogate(chunk.charAt(chunk.length() - 1)));
+            streamed.append(chunk);
+            chunkCount[0]++;
+        });
+
+        assertTrue(chunkCount[0] > 1);
+        assertEquals(TextFileDecoder.normalizeLineSeparators(raw.toString()), streamed.toString());
+        assertEquals(Files.size(file), bytes);
+    }
+
+    @Test
+    void decodesStatefulCharset() throws IOException {
+        Path file = dir.resolve("iso2022.txt");
+        Charset charset = Charset.forName("ISO-2022-JP");
+        Files.writeString(file, "こんにちは\r\n世界\r\n", charset);
+
+        StringBuilder streamed = new StringBuilder();
+        TextFileDecoder.decode(file, charset, streamed::append);
+
+        assertEquals("こんにちは\n世界\n", streamed.toString());
+        assertFalse(TextFileDecoder.isStateless(charset));
+        assertTrue(TextFileDecoder.isStateless(StandardCharsets.UTF_8));
+    }
+}